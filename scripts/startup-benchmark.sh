@@ -0,0 +1,84 @@
+#!/usr/bin/env bash
+# Time-to-ready of the plain jar vs the AOT + CDS build (./mvnw -Pcds package).
+# Ready = /actuator/health/readiness answers UP, i.e. after cache warm-up.
+# Needs MongoDB at the URI in the active config.
+#
+#   scripts/startup-benchmark.sh [runs]
+#   SNAPSHOT=warmup-snapshot.json scripts/startup-benchmark.sh [runs]
+#
+# Every run starts from the same warm-up input: without SNAPSHOT warm-up is
+# off, with it each run gets a fresh copy of that file (the app rewrites its
+# snapshot on shutdown). Upstream calls are pointed at a closed port so the
+# network never ends up in the numbers.
+
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+JAR_NAME=traveladvisor-0.0.1-SNAPSHOT.jar
+PLAIN_JAR="$ROOT/target/$JAR_NAME"
+CDS_DIR="$ROOT/target/app"
+
+if [[ ! -f "$PLAIN_JAR" || ! -f "$CDS_DIR/application.jsa" ]]; then
+  echo "Build first: ./mvnw -Pcds package" >&2
+  exit 1
+fi
+
+SCRATCH=$(mktemp -d)
+trap 'rm -rf "$SCRATCH"' EXIT
+
+COMMON=(-Dserver.port="$PORT" -Dspring.rsocket.server.port=0
+  -Dexternal.weather.base-url=http://127.0.0.1:9
+  -Dexternal.country.base-url=http://127.0.0.1:9
+  -Dexternal.cities.base-url=http://127.0.0.1:9)
+
+if [[ -n "${SNAPSHOT:-}" ]]; then
+  COMMON+=(-Dapp.warmup.enabled=true -Dapp.warmup.snapshot-file="$SCRATCH/snapshot.json")
+else
+  COMMON+=(-Dapp.warmup.enabled=false)
+fi
+
+# prints milliseconds from launch until readiness is UP
+time_to_ready() {
+  local dir=$1; shift
+  local start end pid
+  if [[ -n "${SNAPSHOT:-}" ]]; then
+    cp "$SNAPSHOT" "$SCRATCH/snapshot.json"
+  fi
+  start=$(date +%s%N)
+  (cd "$dir" && exec java "$@" >/dev/null 2>&1) &
+  pid=$!
+  until curl -fs "http://localhost:$PORT/actuator/health/readiness" | grep -q '"UP"'; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "application exited before becoming ready" >&2
+      return 1
+    fi
+    sleep 0.02
+  done
+  end=$(date +%s%N)
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  echo $(( (end - start) / 1000000 ))
+}
+
+median() {
+  sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+run() {
+  local label=$1; shift
+  local results=()
+  for ((i = 1; i <= RUNS; i++)); do
+    results+=("$(time_to_ready "$@")")
+  done
+  MEDIAN=$(printf '%s\n' "${results[@]}" | median)
+  printf '%-10s median %5s ms   runs: %s\n' "$label" "$MEDIAN" "${results[*]}"
+}
+
+run "plain" "$ROOT/target" "${COMMON[@]}" -jar "$JAR_NAME"
+PLAIN=$MEDIAN
+run "aot+cds" "$CDS_DIR" "${COMMON[@]}" -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar "$JAR_NAME"
+CDS=$MEDIAN
+
+awk -v p="$PLAIN" -v c="$CDS" 'BEGIN { printf "reduction  %5d ms   (%.1f%%)\n", p - c, 100 * (p - c) / p }'
@@ -2,8 +2,10 @@ package org.pyt.traveladvisor;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class TravelAdvisoryApplication {
     public static void main(String[] args) {
         SpringApplication.run(TravelAdvisoryApplication.class, args);
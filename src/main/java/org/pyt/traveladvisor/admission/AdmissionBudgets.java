@@ -0,0 +1,84 @@
+package org.pyt.traveladvisor.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Separate in-flight budgets for cheap reads and expensive writes
+// (refresh/delete fan out to the upstreams), shared by HTTP and RSocket.
+// Over budget means reject now with a retry hint, never queue.
+@Component
+public class AdmissionBudgets {
+
+    private final Budget reads;
+    private final Budget writes;
+
+    public AdmissionBudgets(
+            MeterRegistry registry,
+            @Value("${app.admission.read.max-in-flight:256}") int readMaxInFlight,
+            @Value("${app.admission.read.retry-after:PT1S}") Duration readRetryAfter,
+            @Value("${app.admission.write.max-in-flight:4}") int writeMaxInFlight,
+            @Value("${app.admission.write.retry-after:PT10S}") Duration writeRetryAfter) {
+
+        this.reads = new Budget("read", readMaxInFlight, readRetryAfter, registry);
+        this.writes = new Budget("write", writeMaxInFlight, writeRetryAfter, registry);
+    }
+
+    public Budget reads() {
+        return reads;
+    }
+
+    public Budget writes() {
+        return writes;
+    }
+
+    public static class Budget {
+
+        private final String name;
+        private final int maxInFlight;
+        private final Duration retryAfter;
+        private final AtomicInteger inFlight;
+        private final Counter shed;
+
+        Budget(String name, int maxInFlight, Duration retryAfter, MeterRegistry registry) {
+            this.name = name;
+            this.maxInFlight = maxInFlight;
+            this.retryAfter = retryAfter;
+            this.inFlight = registry.gauge("http.server.admission.inflight", Tags.of("class", name), new AtomicInteger());
+            this.shed = Counter.builder("http.server.admission.shed")
+                    .description("Requests rejected because their in-flight budget was exhausted")
+                    .tag("class", name)
+                    .register(registry);
+        }
+
+        public boolean tryAcquire() {
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                shed.increment();
+                return false;
+            }
+            return true;
+        }
+
+        public void release() {
+            inFlight.decrementAndGet();
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public int inFlight() {
+            return inFlight.get();
+        }
+
+        public Duration retryAfter() {
+            return retryAfter;
+        }
+    }
+}
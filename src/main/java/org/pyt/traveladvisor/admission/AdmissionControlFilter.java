@@ -0,0 +1,85 @@
+package org.pyt.traveladvisor.admission;
+
+import lombok.extern.slf4j.Slf4j;
+import org.pyt.traveladvisor.dto.ApiResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.json.JsonMapper;
+
+// Applies the read/write admission budgets to the HTTP API. A request over
+// budget gets an immediate 503 with Retry-After instead of queueing, so a
+// burst of refreshes cannot push up GET latency.
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class AdmissionControlFilter implements WebFilter {
+
+    private static final String API_PREFIX = "/api/";
+
+    private final AdmissionBudgets budgets;
+    private final byte[] shedBody;
+
+    public AdmissionControlFilter(AdmissionBudgets budgets, JsonMapper jsonMapper) {
+        this.budgets = budgets;
+        this.shedBody = jsonMapper.writeValueAsBytes(ApiResponse.failure("Server is busy, retry later"));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange,
+                             WebFilterChain chain) {
+
+        AdmissionBudgets.Budget budget = budgetFor(exchange.getRequest());
+
+        if (budget == null) {
+            return chain.filter(exchange);
+        }
+
+        if (!budget.tryAcquire()) {
+            return shed(exchange.getResponse(), budget);
+        }
+
+        return chain.filter(exchange)
+                .doFinally(signal -> budget.release());
+    }
+
+    // actuator and the long-lived SSE stream are not admission controlled
+    private AdmissionBudgets.Budget budgetFor(ServerHttpRequest request) {
+
+        String path = request.getPath().value();
+
+        if (!path.startsWith(API_PREFIX) || path.endsWith("/stream")) {
+            return null;
+        }
+
+        HttpMethod method = request.getMethod();
+
+        // POST /batch is a read with its city list in the body
+        if (HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method) || path.endsWith("/batch")) {
+            return budgets.reads();
+        }
+
+        return budgets.writes();
+    }
+
+    private Mono<Void> shed(ServerHttpResponse response, AdmissionBudgets.Budget budget) {
+
+        log.debug("[ADMISSION] Shedding {} request, {} in flight", budget.name(), budget.inFlight());
+
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(budget.retryAfter().toSeconds()));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(shedBody)));
+    }
+}
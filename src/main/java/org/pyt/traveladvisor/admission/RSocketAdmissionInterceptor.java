@@ -0,0 +1,153 @@
+package org.pyt.traveladvisor.admission;
+
+import io.rsocket.Payload;
+import io.rsocket.RSocket;
+import io.rsocket.SocketAcceptor;
+import io.rsocket.exceptions.RejectedException;
+import io.rsocket.exceptions.RejectedSetupException;
+import io.rsocket.metadata.CompositeMetadata;
+import io.rsocket.metadata.RoutingMetadata;
+import io.rsocket.metadata.WellKnownMimeType;
+import io.rsocket.plugins.SocketAcceptorInterceptor;
+import io.rsocket.util.RSocketProxy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.pyt.traveladvisor.auth.TokenRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// The RSocket counterpart of BearerAuthFilter + AdmissionControlFilter:
+// the SETUP data carries the bearer token, and every request on the
+// connection is charged to that token's rate limit and to the read or
+// write budget of its route before it reaches the @MessageMapping handlers.
+// The token is matched again per request, so a token removed from the
+// tokens file stops working on connections that are already open.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RSocketAdmissionInterceptor implements SocketAcceptorInterceptor {
+
+    private static final String ROUTING = WellKnownMimeType.MESSAGE_RSOCKET_ROUTING.getString();
+
+    private final TokenRegistry tokens;
+    private final AdmissionBudgets budgets;
+
+    @Override
+    public SocketAcceptor apply(SocketAcceptor acceptor) {
+        return (setup, sendingSocket) -> {
+
+            String token = setup.getDataUtf8();
+
+            if (tokens.matchToken(token) == null) {
+                log.warn("[RSOCKET] Rejected connection with missing or invalid token");
+                return Mono.error(new RejectedSetupException("Invalid token"));
+            }
+
+            return acceptor.accept(setup, sendingSocket)
+                    .map(responder -> new AdmittedRSocket(responder, token));
+        };
+    }
+
+    // the lookup channel admits each city itself; the change stream is
+    // long-lived like the SSE endpoint
+    private AdmissionBudgets.Budget budgetFor(String route) {
+        return switch (route) {
+            case "advisories.changes", "advisories.lookup" -> null;
+            case "advisories.refresh" -> budgets.writes();
+            default -> budgets.reads();
+        };
+    }
+
+    private static String route(Payload payload) {
+
+        if (!payload.hasMetadata()) {
+            return "";
+        }
+
+        for (CompositeMetadata.Entry entry : new CompositeMetadata(payload.sliceMetadata(), false)) {
+            if (ROUTING.equals(entry.getMimeType())) {
+                for (String tag : new RoutingMetadata(entry.getContent())) {
+                    return tag;
+                }
+            }
+        }
+
+        return "";
+    }
+
+    private final class AdmittedRSocket extends RSocketProxy {
+
+        private final String token;
+
+        AdmittedRSocket(RSocket source, String token) {
+            super(source);
+            this.token = token;
+        }
+
+        @Override
+        public Mono<Void> fireAndForget(Payload payload) {
+            return Mono.from(admitted(payload, super::fireAndForget));
+        }
+
+        @Override
+        public Mono<Payload> requestResponse(Payload payload) {
+            return Mono.from(admitted(payload, super::requestResponse));
+        }
+
+        @Override
+        public Flux<Payload> requestStream(Payload payload) {
+            return admitted(payload, super::requestStream);
+        }
+
+        // the route travels in the first payload of the channel, which only
+        // the handler reads; opening a channel costs one rate-limit token
+        @Override
+        public Flux<Payload> requestChannel(Publisher<Payload> payloads) {
+            return Flux.defer(() -> {
+                RejectedException rejected = admit(null);
+                return rejected != null ? Flux.error(rejected) : super.requestChannel(payloads);
+            });
+        }
+
+        private <T> Flux<T> admitted(Payload payload, Function<Payload, Publisher<T>> request) {
+            return Flux.defer(() -> {
+                AdmissionBudgets.Budget budget = budgetFor(route(payload));
+                RejectedException rejected = admit(budget);
+                if (rejected != null) {
+                    payload.release();
+                    return Flux.error(rejected);
+                }
+                Flux<T> response = Flux.from(request.apply(payload));
+                return budget == null ? response : response.doFinally(signal -> budget.release());
+            });
+        }
+
+        private RejectedException admit(AdmissionBudgets.Budget budget) {
+
+            TokenRegistry.Token current = tokens.matchToken(token);
+
+            if (current == null) {
+                return new RejectedException("Token is no longer valid");
+            }
+
+            long waitNanos = current.tryAcquire();
+
+            if (waitNanos > 0) {
+                return new RejectedException("Rate limit exceeded, retry in "
+                        + Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999)) + "s");
+            }
+
+            if (budget != null && !budget.tryAcquire()) {
+                log.debug("[ADMISSION] Shedding RSocket {} request, {} in flight", budget.name(), budget.inFlight());
+                return new RejectedException("Server is busy, retry in " + budget.retryAfter().toSeconds() + "s");
+            }
+
+            return null;
+        }
+    }
+}
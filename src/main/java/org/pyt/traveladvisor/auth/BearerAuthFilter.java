@@ -1,6 +1,10 @@
 package org.pyt.traveladvisor.auth;
 
-import org.springframework.beans.factory.annotation.Value;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
@@ -8,27 +12,53 @@ import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 import reactor.core.publisher.Mono;
 
+import java.util.concurrent.TimeUnit;
+
 @Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
 public class BearerAuthFilter implements WebFilter {
 
-    @Value("${app.security.bearer-token}")
-    private String token;
+    private final TokenRegistry tokens;
+    private final Counter unauthorized;
+    private final Counter rateLimited;
+
+    public BearerAuthFilter(TokenRegistry tokens, MeterRegistry registry) {
+        this.tokens = tokens;
+        this.unauthorized = Counter.builder("http.server.auth.rejected").tag("reason", "unauthorized").register(registry);
+        this.rateLimited = Counter.builder("http.server.auth.rejected").tag("reason", "rate_limited").register(registry);
+    }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange,
                              WebFilterChain chain) {
 
+        // liveness/readiness probes carry no token
+        if (exchange.getRequest().getPath().value().startsWith("/actuator/health")) {
+            return chain.filter(exchange);
+        }
+
         String header = exchange.getRequest()
                 .getHeaders()
-                .getFirst("Authorization");
+                .getFirst(HttpHeaders.AUTHORIZATION);
+
+        TokenRegistry.Token token = tokens.matchHeader(header);
 
-        if (header == null || !header.equals("Bearer " + token)) {
+        if (token == null) {
+            unauthorized.increment();
             exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
             return exchange.getResponse().setComplete();
         }
 
+        long waitNanos = token.tryAcquire();
+
+        if (waitNanos > 0) {
+            rateLimited.increment();
+            exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+            return exchange.getResponse().setComplete();
+        }
+
         return chain.filter(exchange);
     }
 }
-
-
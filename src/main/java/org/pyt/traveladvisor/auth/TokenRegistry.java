@@ -0,0 +1,229 @@
+package org.pyt.traveladvisor.auth;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Active API tokens: app.security.bearer-token plus an optional tokens file,
+// re-read when it changes so tokens rotate without a restart. Lines are
+// "<token> [requests-per-second] [burst]"; no rate means unlimited.
+//
+// The expected "Bearer <token>" bytes are built once per reload. Matching
+// walks every token over the full length so timing does not reveal where
+// a guess diverged, and allocates nothing.
+@Slf4j
+@Component
+public class TokenRegistry {
+
+    private static final String PREFIX = "Bearer ";
+
+    @Value("${app.security.bearer-token:}")
+    private String bearerToken;
+
+    @Value("${app.security.tokens-file:}")
+    private String tokensFile;
+
+    private volatile Token[] tokens = new Token[0];
+    private volatile FileTime loadedVersion;
+
+    // guarded by this; the last tokens file that parsed cleanly
+    private List<Entry> fileEntries = List.of();
+
+    @PostConstruct
+    void init() {
+        reload();
+    }
+
+    // ---------------- MATCH ----------------
+
+    // header is the full Authorization value
+    public Token matchHeader(String header) {
+        return header == null ? null : match(header, 0);
+    }
+
+    // a raw token without the "Bearer " prefix (RSocket setup payload)
+    public Token matchToken(String token) {
+        return token == null ? null : match(token, PREFIX.length());
+    }
+
+    private Token match(String candidate, int expectedOffset) {
+
+        Token matched = null;
+
+        for (Token token : tokens) {
+            if (equalsConstantTime(candidate, token.expected, expectedOffset)) {
+                matched = token;
+            }
+        }
+
+        return matched;
+    }
+
+    private static boolean equalsConstantTime(String candidate, byte[] expected, int offset) {
+
+        int expectedLength = expected.length - offset;
+        int diff = candidate.length() ^ expectedLength;
+
+        for (int i = 0; i < expectedLength; i++) {
+            // out-of-range positions compare against 0 and are already counted by the length check
+            char c = i < candidate.length() ? candidate.charAt(i) : 0;
+            diff |= c ^ expected[offset + i];
+        }
+
+        return diff == 0;
+    }
+
+    // ---------------- RELOAD ----------------
+
+    @Scheduled(fixedDelayString = "${app.security.reload-interval:PT30S}")
+    public void reloadIfChanged() {
+
+        if (tokensFile == null || tokensFile.isBlank()) {
+            return;
+        }
+
+        try {
+            FileTime modified = Files.getLastModifiedTime(Path.of(tokensFile));
+            if (!modified.equals(loadedVersion)) {
+                reload();
+            }
+        } catch (IOException e) {
+            log.warn("[AUTH] Cannot stat tokens file {}: {}", tokensFile, e.getMessage());
+        }
+    }
+
+    // the default token is always active; a tokens file that cannot be read
+    // or parsed keeps the previous file entries and is retried on the next tick
+    synchronized void reload() {
+
+        if (tokensFile != null && !tokensFile.isBlank()) {
+            try {
+                Path path = Path.of(tokensFile);
+                FileTime version = Files.getLastModifiedTime(path);
+                fileEntries = parse(Files.readAllLines(path, StandardCharsets.UTF_8));
+                loadedVersion = version;
+            } catch (IOException | RuntimeException e) {
+                log.warn("[AUTH] Failed loading tokens file {}, keeping {} previous entries: {}",
+                        tokensFile, fileEntries.size(), e.getMessage());
+            }
+        }
+
+        Map<String, Token> current = new HashMap<>();
+        for (Token token : tokens) {
+            current.put(token.value, token);
+        }
+
+        List<Token> next = new ArrayList<>();
+
+        if (bearerToken != null && !bearerToken.isBlank()) {
+            next.add(token(current, "default", bearerToken, 0, 0));
+        }
+
+        for (Entry entry : fileEntries) {
+            next.add(token(current, entry.name(), entry.value(), entry.rate(), entry.burst()));
+        }
+
+        tokens = next.toArray(new Token[0]);
+        log.info("[AUTH] Loaded {} active tokens", tokens.length);
+    }
+
+    // all or nothing: one bad line rejects the whole file
+    private List<Entry> parse(List<String> lines) {
+
+        List<Entry> entries = new ArrayList<>();
+        int line = 0;
+
+        for (String raw : lines) {
+            line++;
+            String entry = raw.strip();
+            if (entry.isEmpty() || entry.startsWith("#")) {
+                continue;
+            }
+            String[] parts = entry.split("\\s+");
+            double rate = parts.length > 1 ? Double.parseDouble(parts[1]) : 0;
+            int burst = parts.length > 2 ? Integer.parseInt(parts[2]) : (int) Math.max(1, Math.ceil(rate));
+            entries.add(new Entry(tokensFile + ":" + line, parts[0], rate, burst));
+        }
+
+        return entries;
+    }
+
+    // limiter state survives a reload for tokens whose budget is unchanged
+    private Token token(Map<String, Token> current, String name, String value, double rate, int burst) {
+
+        Token existing = current.get(value);
+        if (existing != null && existing.rate == rate && existing.burst == burst) {
+            return existing;
+        }
+
+        return new Token(name, value, rate, burst);
+    }
+
+    // ---------------- TOKEN ----------------
+
+    private record Entry(String name, String value, double rate, int burst) {
+    }
+
+    public static final class Token {
+
+        private final String name;
+        private final String value;
+        private final byte[] expected;
+        private final double rate;
+        private final int burst;
+        private final long intervalNanos;
+        private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+
+        Token(String name, String value, double rate, int burst) {
+            this.name = name;
+            this.value = value;
+            this.expected = (PREFIX + value).getBytes(StandardCharsets.US_ASCII);
+            this.rate = rate;
+            this.burst = burst;
+            this.intervalNanos = rate > 0 ? (long) (1_000_000_000L / rate) : 0;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        // GCRA token bucket: one CAS, no allocation. Returns 0 when admitted,
+        // otherwise the nanos until the next request would be.
+        public long tryAcquire() {
+
+            if (intervalNanos == 0) {
+                return 0;
+            }
+
+            long tolerance = intervalNanos * burst;
+
+            while (true) {
+                long now = System.nanoTime();
+                long tat = theoreticalArrival.get();
+                long next = Math.max(tat, now) + intervalNanos;
+                long wait = next - now - tolerance;
+
+                if (wait > 0) {
+                    return wait;
+                }
+
+                if (theoreticalArrival.compareAndSet(tat, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.pyt.traveladvisor.cache;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.pyt.traveladvisor.model.TravelAdvisory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-process advisory cache keyed by cityKey. Entries are dropped through the
+// InvalidationBus on every sync or delete, on this node or any other, so the
+// TTL only bounds staleness if an invalidation is lost.
+@Component
+@RequiredArgsConstructor
+public class AdvisoryCache {
+
+    private final InvalidationBus bus;
+
+    @Value("${app.cache.advisory.ttl:PT1H}")
+    private Duration ttl;
+
+    @Value("${app.cache.advisory.max-entries:10000}")
+    private int maxEntries;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Long> invalidatedAt = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void subscribe() {
+        bus.addListener(message -> invalidate(message.getCityKey()));
+    }
+
+    public TravelAdvisory get(String cityKey) {
+
+        Entry entry = entries.get(cityKey);
+
+        if (entry == null) {
+            return null;
+        }
+
+        if (System.nanoTime() - entry.loadedAt() > ttl.toNanos()) {
+            entries.remove(cityKey, entry);
+            return null;
+        }
+
+        return entry.advisory();
+    }
+
+    // readStartedAt is System.nanoTime() taken before the database read;
+    // a result read before the latest invalidation is not cached
+    public void put(TravelAdvisory advisory, long readStartedAt) {
+
+        String key = advisory.getCityKey();
+        Long invalidated = invalidatedAt.get(key);
+
+        if (invalidated != null && invalidated - readStartedAt >= 0) {
+            return;
+        }
+
+        if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+            evictOne();
+        }
+
+        entries.put(key, new Entry(advisory, System.nanoTime()));
+    }
+
+    public void invalidate(String cityKey) {
+        invalidatedAt.put(cityKey, System.nanoTime());
+        entries.remove(cityKey);
+    }
+
+    private void evictOne() {
+        Iterator<String> keys = entries.keySet().iterator();
+        if (keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private record Entry(TravelAdvisory advisory, long loadedAt) {
+    }
+}
@@ -0,0 +1,162 @@
+package org.pyt.traveladvisor.cache;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.pyt.traveladvisor.mapper.AdvisoryMapper;
+import org.pyt.traveladvisor.model.TravelAdvisory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+// Encoded JSON of the full advisory DTO per cityKey, valid for one syncedAt.
+// Responses are assembled from the cached arrays (wrapped, not copied)
+// between a fixed envelope prefix and suffix, so a hot read skips the
+// mapper, the advisory engine and Jackson entirely.
+@Component
+@RequiredArgsConstructor
+public class AdvisoryJsonCache {
+
+    // must match Jackson's output for ApiResponse.success(list) and ApiResponse.page(list, cursor),
+    // see AdvisoryJsonCacheTest
+    private static final byte[] PREFIX = "{\"status\":\"SUCCESS\",\"data\":[".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SEPARATOR = ",".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SUFFIX = "]}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CURSOR = "],\"nextCursor\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CLOSE = "}".getBytes(StandardCharsets.UTF_8);
+
+    private final AdvisoryMapper mapper;
+    private final JsonMapper jsonMapper;
+    private final InvalidationBus bus;
+
+    @Value("${app.cache.json.max-entries:10000}")
+    private int maxEntries;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void subscribe() {
+        bus.addListener(message -> entries.remove(message.getCityKey()));
+    }
+
+    // ---------------- ENCODE ----------------
+
+    public byte[] json(TravelAdvisory advisory) {
+        return entry(advisory).json();
+    }
+
+    // gzip of the whole single-advisory envelope, compressed once per sync
+    public byte[] gzippedEnvelope(TravelAdvisory advisory) {
+
+        Entry entry = entry(advisory);
+        byte[] gzipped = entry.gzipped;
+
+        if (gzipped == null) {
+            gzipped = gzip(PREFIX, entry.json(), SUFFIX);
+            entry.gzipped = gzipped;
+        }
+
+        return gzipped;
+    }
+
+    public Flux<DataBuffer> envelope(List<TravelAdvisory> advisories, DataBufferFactory buffers) {
+        return envelope(advisories, null, buffers);
+    }
+
+    // a paged listing; nextCursor is omitted when null, like NON_NULL does
+    public Flux<DataBuffer> envelope(List<TravelAdvisory> advisories, String nextCursor, DataBufferFactory buffers) {
+
+        List<DataBuffer> parts = new ArrayList<>(advisories.size() * 2 + 3);
+        parts.add(buffers.wrap(PREFIX));
+
+        for (int i = 0; i < advisories.size(); i++) {
+            if (i > 0) {
+                parts.add(buffers.wrap(SEPARATOR));
+            }
+            parts.add(buffers.wrap(json(advisories.get(i))));
+        }
+
+        if (nextCursor == null) {
+            parts.add(buffers.wrap(SUFFIX));
+        } else {
+            parts.add(buffers.wrap(CURSOR));
+            parts.add(buffers.wrap(jsonMapper.writeValueAsBytes(nextCursor)));
+            parts.add(buffers.wrap(CLOSE));
+        }
+
+        return Flux.fromIterable(parts);
+    }
+
+    private Entry entry(TravelAdvisory advisory) {
+
+        String key = advisory.getCityKey();
+        Entry entry = entries.get(key);
+
+        if (entry != null && Objects.equals(entry.syncedAt, advisory.getSyncedAt())) {
+            return entry;
+        }
+
+        entry = new Entry(advisory.getSyncedAt(), jsonMapper.writeValueAsBytes(mapper.toDto(advisory)));
+
+        if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+            evictOne();
+        }
+
+        entries.put(key, entry);
+        return entry;
+    }
+
+    private void evictOne() {
+        Iterator<String> keys = entries.keySet().iterator();
+        if (keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static byte[] gzip(byte[]... parts) {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            for (byte[] part : parts) {
+                gzip.write(part);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return out.toByteArray();
+    }
+
+    private static final class Entry {
+
+        private final Instant syncedAt;
+        private final byte[] json;
+        private volatile byte[] gzipped;
+
+        Entry(Instant syncedAt, byte[] json) {
+            this.syncedAt = syncedAt;
+            this.json = json;
+        }
+
+        byte[] json() {
+            return json;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.pyt.traveladvisor.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.pyt.traveladvisor.model.CityAlias;
+import org.pyt.traveladvisor.repository.CityAliasRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Maps normalized city names ("nyc", "new york") to the canonical cityKey
+// OpenWeather resolved them to. Served from memory; the city_aliases
+// collection is loaded at startup and consulted on a miss, so aliases
+// learned on other nodes are picked up on first use.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CityAliasRegistry {
+
+    private final CityAliasRepository repo;
+
+    private final Map<String, String> aliases = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    void load() {
+        repo.findAll()
+                .doOnNext(alias -> aliases.put(alias.getAlias(), alias.getCityKey()))
+                .count()
+                .subscribe(
+                        count -> log.info("[ALIAS] Loaded {} city aliases", count),
+                        err -> log.warn("[ALIAS] Failed loading city aliases: {}", err.getMessage()));
+    }
+
+    // memory only; unknown names are their own key
+    public String cached(String name) {
+        return aliases.getOrDefault(name, name);
+    }
+
+    public Mono<String> resolve(String name) {
+
+        String key = aliases.get(name);
+
+        if (key != null) {
+            return Mono.just(key);
+        }
+
+        return repo.findById(name)
+                .map(alias -> {
+                    aliases.put(name, alias.getCityKey());
+                    return alias.getCityKey();
+                })
+                .onErrorResume(err -> {
+                    log.warn("[ALIAS] Failed resolving alias: {}, error: {}", name, err.getMessage());
+                    return Mono.empty();
+                })
+                .defaultIfEmpty(name);
+    }
+
+    // emits true only when the alias was not known before
+    public Mono<Boolean> record(String name, String cityKey) {
+
+        if (name.equals(cityKey) || cityKey.equals(aliases.put(name, cityKey))) {
+            return Mono.just(false);
+        }
+
+        log.debug("[ALIAS] Recording alias: {} -> {}", name, cityKey);
+
+        return repo.save(new CityAlias(name, cityKey, Instant.now()))
+                .onErrorResume(err -> {
+                    log.warn("[ALIAS] Failed saving alias: {}, error: {}", name, err.getMessage());
+                    return Mono.empty();
+                })
+                .thenReturn(true);
+    }
+}
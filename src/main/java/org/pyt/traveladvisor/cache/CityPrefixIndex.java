@@ -0,0 +1,226 @@
+package org.pyt.traveladvisor.cache;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.pyt.traveladvisor.model.AdvisoryInvalidation;
+import org.pyt.traveladvisor.model.TravelAdvisory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Sorted array of lowercased city names for type-ahead. Reads binary-search a
+// volatile snapshot without locking; writes copy the array, which is fine at
+// sync/delete rates. Kept current through the InvalidationBus so every node
+// sees cities synced or deleted elsewhere.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CityPrefixIndex {
+
+    private final ReactiveMongoTemplate template;
+    private final InvalidationBus bus;
+
+    // optional GeoNames dump (cities15000.txt etc.) or a plain one-name-per-line file
+    @Value("${app.suggest.seed-file:}")
+    private String seedFile;
+
+    private volatile String[] keys = new String[0];
+    private volatile Set<String> seeded = Set.of();
+
+    // several stored cities can share a name (Springfield, San Jose), so a
+    // name leaves the index only once no stored city or seed entry uses it
+    private final Map<String, String> namesByKey = new HashMap<>();
+    private final Map<String, Integer> keysPerName = new HashMap<>();
+
+    @PostConstruct
+    void subscribe() {
+        // cityKeys are OpenWeather ids, so the index holds the names
+        bus.addListener(message -> {
+            if (message.getType() == AdvisoryInvalidation.Type.SYNCED) {
+                stored(message.getCityKey(), message.getCity().toLowerCase());
+            } else {
+                deleted(message.getCityKey());
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void load() {
+
+        Set<String> seed = readSeedFile();
+        seeded = seed;
+        addAll(seed);
+
+        Query query = new Query();
+        query.fields().include("city");
+
+        template.find(query, TravelAdvisory.class)
+                .collectList()
+                .subscribe(
+                        stored -> {
+                            storedAll(stored);
+                            log.info("[SUGGEST] Prefix index loaded with {} names ({} seeded)", keys.length, seed.size());
+                        },
+                        err -> log.warn("[SUGGEST] Failed loading city names: {}", err.getMessage()));
+    }
+
+    // ---------------- LOOKUP ----------------
+
+    public List<String> suggest(String prefix, int limit) {
+
+        String[] snapshot = keys;
+        int from = Arrays.binarySearch(snapshot, prefix);
+        if (from < 0) {
+            from = -from - 1;
+        }
+
+        List<String> matches = new ArrayList<>(Math.min(limit, snapshot.length - from));
+        for (int i = from; i < snapshot.length && matches.size() < limit && snapshot[i].startsWith(prefix); i++) {
+            matches.add(snapshot[i]);
+        }
+
+        return matches;
+    }
+
+    // ---------------- UPDATE ----------------
+
+    synchronized void stored(String cityKey, String name) {
+
+        String previous = namesByKey.put(cityKey, name);
+        if (name.equals(previous)) {
+            return;
+        }
+
+        // a renamed city gives up its old name
+        if (previous != null) {
+            release(previous);
+        }
+
+        keysPerName.merge(name, 1, Integer::sum);
+        add(name);
+    }
+
+    synchronized void deleted(String cityKey) {
+
+        String previous = namesByKey.remove(cityKey);
+
+        if (previous != null) {
+            release(previous);
+        }
+    }
+
+    private synchronized void storedAll(List<TravelAdvisory> advisories) {
+
+        List<String> added = new ArrayList<>();
+
+        for (TravelAdvisory advisory : advisories) {
+            String name = advisory.getCity().toLowerCase();
+            String previous = namesByKey.put(advisory.getCityKey(), name);
+            if (!name.equals(previous)) {
+                if (previous != null) {
+                    release(previous);
+                }
+                keysPerName.merge(name, 1, Integer::sum);
+                added.add(name);
+            }
+        }
+
+        addAll(added);
+    }
+
+    private void release(String name) {
+
+        Integer left = keysPerName.computeIfPresent(name, (k, count) -> count > 1 ? count - 1 : null);
+
+        if (left == null && !seeded.contains(name)) {
+            remove(name);
+        }
+    }
+
+    public synchronized void add(String key) {
+
+        String[] current = keys;
+        int at = Arrays.binarySearch(current, key);
+        if (at >= 0) {
+            return;
+        }
+
+        at = -at - 1;
+        String[] next = new String[current.length + 1];
+        System.arraycopy(current, 0, next, 0, at);
+        next[at] = key;
+        System.arraycopy(current, at, next, at + 1, current.length - at);
+        keys = next;
+    }
+
+    public synchronized void remove(String key) {
+
+        String[] current = keys;
+        int at = Arrays.binarySearch(current, key);
+        if (at < 0) {
+            return;
+        }
+
+        String[] next = new String[current.length - 1];
+        System.arraycopy(current, 0, next, 0, at);
+        System.arraycopy(current, at + 1, next, at, current.length - at - 1);
+        keys = next;
+    }
+
+    private synchronized void addAll(Collection<String> added) {
+
+        if (added.isEmpty()) {
+            return;
+        }
+
+        TreeSet<String> merged = new TreeSet<>(Arrays.asList(keys));
+        merged.addAll(added);
+        keys = merged.toArray(new String[0]);
+    }
+
+    // ---------------- SEED ----------------
+
+    private Set<String> readSeedFile() {
+
+        if (seedFile == null || seedFile.isBlank()) {
+            return Set.of();
+        }
+
+        Set<String> names = new TreeSet<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(seedFile), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // GeoNames rows are tab-separated: geonameid, name, asciiname, ...
+                String[] columns = line.split("\t", 4);
+                String name = columns.length > 2 ? columns[2] : columns[0];
+                if (!name.isBlank()) {
+                    names.add(name.trim().toLowerCase());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("[SUGGEST] Could not read seed file {}: {}", seedFile, e.getMessage());
+            return Set.of();
+        }
+
+        return Set.copyOf(names);
+    }
+}
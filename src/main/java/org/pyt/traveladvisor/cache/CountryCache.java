@@ -0,0 +1,72 @@
+package org.pyt.traveladvisor.cache;
+
+import org.pyt.traveladvisor.dto.CountryApiResponseDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// REST Countries records by ISO2 code. Country metadata barely changes,
+// so every city of a country shares one upstream lookup per TTL.
+@Component
+public class CountryCache {
+
+    @Value("${app.cache.country.ttl:P1D}")
+    private Duration ttl;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public CountryApiResponseDto get(String code) {
+
+        Entry entry = entries.get(code);
+
+        if (entry == null) {
+            return null;
+        }
+
+        if (expired(entry)) {
+            entries.remove(code, entry);
+            return null;
+        }
+
+        return entry.country();
+    }
+
+    public void put(CountryApiResponseDto country) {
+        put(country, System.nanoTime());
+    }
+
+    // restored records keep the age they had when they were loaded
+    public void put(CountryApiResponseDto country, Instant loadedAt) {
+        long age = Duration.between(loadedAt, Instant.now()).toNanos();
+        put(country, System.nanoTime() - Math.max(0, age));
+    }
+
+    private void put(CountryApiResponseDto country, long loadedAt) {
+        Entry entry = new Entry(country, loadedAt);
+        if (country.getCca2() != null && !expired(entry)) {
+            entries.put(country.getCca2(), entry);
+        }
+    }
+
+    public boolean containsName(String name) {
+        return entries.values().stream()
+                .filter(e -> !expired(e))
+                .anyMatch(e -> e.country().getName() != null && name.equalsIgnoreCase(e.country().getName().getCommon()));
+    }
+
+    private boolean expired(Entry entry) {
+        return System.nanoTime() - entry.loadedAt() > ttl.toNanos();
+    }
+
+    public List<CountryApiResponseDto> all() {
+        return entries.values().stream().filter(e -> !expired(e)).map(Entry::country).toList();
+    }
+
+    private record Entry(CountryApiResponseDto country, long loadedAt) {
+    }
+}
@@ -0,0 +1,174 @@
+package org.pyt.traveladvisor.cache;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.pyt.traveladvisor.config.ClusterProperties;
+import org.pyt.traveladvisor.model.AdvisoryInvalidation;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+// Cross-node cache invalidation: publishers apply the message locally and
+// append it to a capped collection; every other node tails that collection.
+// Publishing is lazy, so callers chain it after the write it describes.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InvalidationBus {
+
+    private static final long CAPPED_SIZE_BYTES = 1024 * 1024;
+    private static final long CAPPED_MAX_DOCUMENTS = 10_000;
+    private static final Duration START_TIMEOUT = Duration.ofSeconds(5);
+
+    private final ReactiveMongoTemplate template;
+    private final ClusterProperties props;
+
+    private final List<Consumer<AdvisoryInvalidation>> listeners = new CopyOnWriteArrayList<>();
+    // _id of the last message seen; null until the tail has found its start
+    private final AtomicReference<ObjectId> lastSeen = new AtomicReference<>();
+
+    private Disposable subscription;
+
+    public void addListener(Consumer<AdvisoryInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    // ---------------- PUBLISH ----------------
+
+    public Mono<Void> publish(String cityKey, String city, AdvisoryInvalidation.Type type) {
+
+        return Mono.defer(() -> {
+            AdvisoryInvalidation message = new AdvisoryInvalidation(
+                    null, cityKey, city, type, props.getInstanceId(), Instant.now());
+
+            apply(message);
+
+            return template.insert(message)
+                    .onErrorResume(err -> {
+                        log.warn("[CACHE] Failed publishing invalidation for: {}, error: {}", cityKey, err.getMessage());
+                        return Mono.empty();
+                    })
+                    .then();
+        });
+    }
+
+    // one insert for a whole batch (bulk import); cityByKey maps cityKey -> city
+    public Mono<Void> publishAll(Map<String, String> cityByKey, AdvisoryInvalidation.Type type) {
+
+        return Mono.defer(() -> {
+            Instant now = Instant.now();
+            List<AdvisoryInvalidation> messages = cityByKey.entrySet().stream()
+                    .map(e -> new AdvisoryInvalidation(null, e.getKey(), e.getValue(), type, props.getInstanceId(), now))
+                    .toList();
+
+            messages.forEach(this::apply);
+
+            return template.insertAll(messages)
+                    .onErrorResume(err -> {
+                        log.warn("[CACHE] Failed publishing {} invalidations, error: {}", messages.size(), err.getMessage());
+                        return Mono.empty();
+                    })
+                    .then();
+        });
+    }
+
+    private void apply(AdvisoryInvalidation message) {
+        for (Consumer<AdvisoryInvalidation> listener : listeners) {
+            listener.accept(message);
+        }
+    }
+
+    // ---------------- SUBSCRIBE ----------------
+
+    // ApplicationStartedEvent comes before the ApplicationRunners, so the start
+    // position is fixed before warm-up reads anything; messages other nodes
+    // publish while the caches fill are tailed rather than skipped
+    @EventListener(ApplicationStartedEvent.class)
+    void start() {
+
+        try {
+            ensureCappedCollection()
+                    .then(latestId())
+                    .doOnNext(lastSeen::set)
+                    .block(START_TIMEOUT);
+        } catch (RuntimeException e) {
+            log.warn("[CACHE] Could not find the invalidation tail position: {}", e.getMessage());
+        }
+
+        subscription = tail().subscribe();
+    }
+
+    private Flux<AdvisoryInvalidation> tail() {
+
+        // a tailable cursor ends when the collection is empty or the cursor is
+        // lost; restart after the last message seen, by _id rather than by the
+        // publisher's clock
+        return Flux.defer(() -> template.tail(tailQuery(), AdvisoryInvalidation.class))
+                .doOnNext(message -> lastSeen.set(new ObjectId(message.getId())))
+                .filter(message -> !props.getInstanceId().equals(message.getOrigin()))
+                .doOnNext(message -> {
+                    log.debug("[CACHE] Invalidation from {} for: {}", message.getOrigin(), message.getCityKey());
+                    apply(message);
+                })
+                .repeatWhen(done -> done.delayElements(Duration.ofSeconds(1)))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetry(signal -> log.warn("[CACHE] Invalidation tail failed, retrying: {}",
+                                signal.failure().getMessage())));
+    }
+
+    private Query tailQuery() {
+        ObjectId after = lastSeen.get();
+        return after == null ? new Query() : Query.query(Criteria.where("_id").gt(after));
+    }
+
+    // messages already in the collection at startup are history, not news
+    private Mono<ObjectId> latestId() {
+        return template.findOne(new Query().with(Sort.by(Sort.Direction.DESC, "_id")), AdvisoryInvalidation.class)
+                .map(message -> new ObjectId(message.getId()))
+                .onErrorResume(err -> Mono.empty());
+    }
+
+    private Mono<Void> ensureCappedCollection() {
+        return template.collectionExists(AdvisoryInvalidation.class)
+                .flatMap(exists -> exists
+                        ? Mono.<Void>empty()
+                        : template.createCollection(AdvisoryInvalidation.class,
+                                CollectionOptions.empty()
+                                        .capped()
+                                        .size(CAPPED_SIZE_BYTES)
+                                        .maxDocuments(CAPPED_MAX_DOCUMENTS))
+                                .then())
+                // another node may have created it first
+                .onErrorResume(err -> {
+                    log.debug("[CACHE] Invalidation collection not created: {}", err.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.pyt.traveladvisor.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Reads per cityKey since startup; picks what to warm after the next deploy.
+@Component
+public class ReadStats {
+
+    @Value("${app.warmup.max-tracked:100000}")
+    private int maxTracked;
+
+    private final Map<String, LongAdder> reads = new ConcurrentHashMap<>();
+
+    public void record(String cityKey) {
+
+        LongAdder counter = reads.get(cityKey);
+
+        if (counter == null) {
+            if (reads.size() >= maxTracked) {
+                return;
+            }
+            counter = reads.computeIfAbsent(cityKey, k -> new LongAdder());
+        }
+
+        counter.increment();
+    }
+
+    public List<String> top(int n) {
+        return reads.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> e) -> e.getValue().sum()).reversed())
+                .limit(n)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+}
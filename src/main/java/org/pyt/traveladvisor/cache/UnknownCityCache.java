@@ -0,0 +1,54 @@
+package org.pyt.traveladvisor.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Negative cache for names OpenWeather does not know, so read-through
+// lookups for bad names don't reach the upstream on every request.
+@Component
+public class UnknownCityCache {
+
+    @Value("${app.read-through.negative-ttl:PT10M}")
+    private Duration ttl;
+
+    @Value("${app.read-through.negative-max-entries:10000}")
+    private int maxEntries;
+
+    private final Map<String, Long> expiresAt = new ConcurrentHashMap<>();
+
+    public boolean isUnknown(String cityKey) {
+
+        Long expiry = expiresAt.get(cityKey);
+
+        if (expiry == null) {
+            return false;
+        }
+
+        if (System.nanoTime() - expiry >= 0) {
+            expiresAt.remove(cityKey, expiry);
+            return false;
+        }
+
+        return true;
+    }
+
+    public void markUnknown(String cityKey) {
+
+        if (expiresAt.size() >= maxEntries) {
+            expiresAt.entrySet().removeIf(e -> System.nanoTime() - e.getValue() >= 0);
+            if (expiresAt.size() >= maxEntries) {
+                return;
+            }
+        }
+
+        expiresAt.put(cityKey, System.nanoTime() + ttl.toNanos());
+    }
+
+    public void forget(String cityKey) {
+        expiresAt.remove(cityKey);
+    }
+}
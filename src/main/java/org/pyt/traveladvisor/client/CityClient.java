@@ -4,6 +4,8 @@ import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.pyt.traveladvisor.config.ExternalApiProperties;
+import org.pyt.traveladvisor.metrics.AdvisoryMetrics;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
@@ -18,6 +20,7 @@ public class CityClient {
 
     private final WebClient citiesWebClient;
     private final ExternalApiProperties props;
+    private final AdvisoryMetrics metrics;
 
     public Mono<List<String>> getTopCitiesByCountryCode(String countryCode, int limit) {
 
@@ -26,7 +29,7 @@ public class CityClient {
             return Mono.just(emptyList());
         }
 
-        log.info("[EXTERNAL API] Fetching top {} cities from GeoNames for country code: {}", limit, countryCode);
+        log.debug("[EXTERNAL API] Fetching top {} cities from GeoNames for country code: {}", limit, countryCode);
         return fetchCitiesFromGeoNames(countryCode, limit)
                 .map(this::extractCityNames)
                 .doOnNext(list -> logResult(list, countryCode))
@@ -40,14 +43,13 @@ public class CityClient {
 
     private Mono<GeoNamesResponse> fetchCitiesFromGeoNames(String countryCode, int limit) {
         String username = props.getCities().getUsername();
-        long startTime = System.currentTimeMillis();
         String url = props.getCities().getBaseUrl();
         String endpoint = "/searchJSON";
 
-        log.info("[EXTERNAL API] Calling GeoNames API - URL: {}{}, countryCode: {}, limit: {}, featureClass: P, orderBy: population",
+        log.debug("[EXTERNAL API] Calling GeoNames API - URL: {}{}, countryCode: {}, limit: {}, featureClass: P, orderBy: population",
                 url, endpoint, countryCode, limit);
 
-        return citiesWebClient.get()
+        Mono<ResponseEntity<GeoNamesResponse>> call = citiesWebClient.get()
                 .uri(uri -> uri
                         .path("/searchJSON")
                         .queryParam("country", countryCode)
@@ -57,21 +59,17 @@ public class CityClient {
                         .queryParam("username", username)
                         .build())
                 .retrieve()
-                .bodyToMono(GeoNamesResponse.class)
-                .doOnNext(response -> {
-                    long duration = System.currentTimeMillis() - startTime;
-                    log.info("[EXTERNAL API] GeoNames API Response - countryCode: {}, totalResults: {}, duration: {}ms",
-                            countryCode,
-                            response.getTotalResultsCount() != null ? response.getTotalResultsCount() : 0,
-                            duration);
-                })
-                .doOnError(error -> {
-                    long duration = System.currentTimeMillis() - startTime;
-                    log.error("[EXTERNAL API] GeoNames API Error - countryCode: {}, error: {}, duration: {}ms",
-                            countryCode,
-                            error.getMessage(),
-                            duration);
-                });
+                .toEntity(GeoNamesResponse.class);
+
+        return metrics.timeUpstream("geonames", endpoint, call)
+                .doOnNext(response ->
+                        log.debug("[EXTERNAL API] GeoNames API Response - countryCode: {}, totalResults: {}",
+                                countryCode,
+                                response.getTotalResultsCount()))
+                .doOnError(error ->
+                        log.error("[EXTERNAL API] GeoNames API Error - countryCode: {}, error: {}",
+                                countryCode,
+                                error.getMessage()));
     }
 
     private List<String> extractCityNames(GeoNamesResponse resp) {
@@ -89,7 +87,7 @@ public class CityClient {
         if (cities.isEmpty()) {
             log.warn("[EXTERNAL API] GeoNames returned no cities for countryCode: {}", countryCode);
         } else {
-            log.info("[EXTERNAL API] GeoNames returned {} cities for countryCode: {} - cities: {}",
+            log.debug("[EXTERNAL API] GeoNames returned {} cities for countryCode: {} - cities: {}",
                     cities.size(),
                     countryCode,
                     cities);
@@ -4,10 +4,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.pyt.traveladvisor.config.ExternalApiProperties;
 import org.pyt.traveladvisor.dto.WeatherApiResponseDto;
+import org.pyt.traveladvisor.metrics.AdvisoryMetrics;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
-import java.time.Instant;
 
 @Slf4j
 @Component
@@ -16,36 +17,44 @@ public class OpenWeatherClient {
 
     private final WebClient weatherWebClient;
     private final ExternalApiProperties props;
+    private final AdvisoryMetrics metrics;
 
     public Mono<WeatherApiResponseDto> fetchWeather(String city) {
-        long startTime = System.currentTimeMillis();
+        return fetch("q", city);
+    }
+
+    // exact lookup for cities already resolved to an OpenWeather id
+    public Mono<WeatherApiResponseDto> fetchWeatherById(String cityId) {
+        return fetch("id", cityId);
+    }
+
+    private Mono<WeatherApiResponseDto> fetch(String param, String city) {
         String url = props.getWeather().getBaseUrl();
 
-        log.info("[EXTERNAL API] Calling OpenWeather API - URL: {}/data/2.5/weather, city: {}", url, city);
+        log.debug("[EXTERNAL API] Calling OpenWeather API - URL: {}/data/2.5/weather, {}: {}", url, param, city);
 
-        return weatherWebClient.get()
+        Mono<ResponseEntity<WeatherApiResponseDto>> call = weatherWebClient.get()
                 .uri(uri -> uri
                         .path("/data/2.5/weather")
-                        .queryParam("q", city)
+                        .queryParam(param, city)
                         .queryParam("APPID", props.getWeather().getApiKey())
                         .queryParam("units", "metric")
                         .build())
                 .retrieve()
-                .bodyToMono(WeatherApiResponseDto.class)
+                .toEntity(WeatherApiResponseDto.class);
+
+        return metrics.timeUpstream("openweather", "/data/2.5/weather", call)
                 .doOnNext(response -> {
-                    long duration = System.currentTimeMillis() - startTime;
-                    log.info("[EXTERNAL API] OpenWeather API Response - city: {}, temp: {}°C, humidity: {}%, duration: {}ms",
-                            city,
-                            response.getMain().getTemp(),
-                            response.getMain().getHumidity(),
-                            duration);
+                    if (log.isDebugEnabled()) {
+                        log.debug("[EXTERNAL API] OpenWeather API Response - city: {}, temp: {}°C, humidity: {}%",
+                                city,
+                                response.getMain().getTemp(),
+                                response.getMain().getHumidity());
+                    }
                 })
-                .doOnError(error -> {
-                    long duration = System.currentTimeMillis() - startTime;
-                    log.error("[EXTERNAL API] OpenWeather API Error - city: {}, error: {}, duration: {}ms",
-                            city,
-                            error.getMessage(),
-                            duration);
-                });
+                .doOnError(error ->
+                        log.error("[EXTERNAL API] OpenWeather API Error - city: {}, error: {}",
+                                city,
+                                error.getMessage()));
     }
 }
@@ -0,0 +1,27 @@
+package org.pyt.traveladvisor.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.UUID;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.cluster")
+@Data
+public class ClusterProperties {
+
+    // must be unique per running instance
+    private String instanceId = "node-" + UUID.randomUUID();
+    private Duration refreshInterval = Duration.ofMinutes(30);
+    private Lease lease = new Lease();
+
+    @Data
+    public static class Lease {
+        private boolean enabled = false;
+        private int partitions = 16;
+        private Duration ttl = Duration.ofSeconds(30);
+        private Duration heartbeat = Duration.ofSeconds(10);
+    }
+}
@@ -0,0 +1,61 @@
+package org.pyt.traveladvisor.config;
+
+import org.reactivestreams.Publisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.cbor.JacksonCborDecoder;
+import org.springframework.http.codec.cbor.JacksonCborEncoder;
+import org.springframework.util.MimeType;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.cfg.DateTimeFeature;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.util.Map;
+
+// application/cbor for internal consumers; JSON stays the default
+@Configuration
+public class CodecConfig implements WebFluxConfigurer {
+
+    @Bean
+    public CBORMapper cborMapper() {
+        // ISO strings like the JSON API, so both formats carry the same schema
+        return CBORMapper.builder()
+                .disable(DateTimeFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        // as default codecs they sit after JSON, so a missing Accept or */* still
+        // negotiates JSON; custom codecs would be tried first
+        configurer.defaultCodecs().jacksonCborEncoder(new SingleValueCborEncoder(cborMapper()));
+        configurer.defaultCodecs().jacksonCborDecoder(new JacksonCborDecoder(cborMapper()));
+    }
+
+    // The stock encoder rejects encode(Publisher) outright, and the writer goes
+    // through it even for single-value bodies. Mono bodies are encoded as one
+    // value; streams stay unsupported.
+    static class SingleValueCborEncoder extends JacksonCborEncoder {
+
+        SingleValueCborEncoder(CBORMapper mapper) {
+            super(mapper);
+        }
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> input, DataBufferFactory bufferFactory, ResolvableType elementType,
+                                       MimeType mimeType, Map<String, Object> hints) {
+
+            if (input instanceof Mono<?> mono) {
+                return mono.map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints)).flux();
+            }
+
+            return super.encode(input, bufferFactory, elementType, mimeType, hints);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.pyt.traveladvisor.config;
+
+import org.pyt.traveladvisor.admission.RSocketAdmissionInterceptor;
+import org.springframework.boot.rsocket.server.RSocketServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class RSocketConfig {
+
+    @Bean
+    public RSocketServerCustomizer rSocketAdmission(RSocketAdmissionInterceptor interceptor) {
+        return server -> server.interceptors(registry -> registry.forSocketAcceptor(interceptor));
+    }
+}
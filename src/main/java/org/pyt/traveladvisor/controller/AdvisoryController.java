@@ -1,17 +1,44 @@
 package org.pyt.traveladvisor.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.pyt.traveladvisor.cache.AdvisoryJsonCache;
+import org.pyt.traveladvisor.dto.AdvisoryEventDto;
+import org.pyt.traveladvisor.dto.AdvisoryField;
 import org.pyt.traveladvisor.dto.AdvisoryResponseDto;
+import org.pyt.traveladvisor.dto.AdvisoryStatsDto;
 import org.pyt.traveladvisor.dto.AdvisoryWithAuditDto;
 import org.pyt.traveladvisor.dto.ApiResponse;
+import org.pyt.traveladvisor.dto.BatchAdvisoryDto;
+import org.pyt.traveladvisor.dto.ChangeFeedDto;
+import org.pyt.traveladvisor.dto.WeatherHistoryBucketDto;
+import org.pyt.traveladvisor.exception.ValidationException;
 import org.pyt.traveladvisor.mapper.AdvisoryMapper;
+import org.pyt.traveladvisor.metrics.RequestTiming;
+import org.pyt.traveladvisor.model.TravelAdvisory;
+import org.pyt.traveladvisor.service.AdvisoryChangeStream;
 import org.pyt.traveladvisor.service.AdvisoryService;
+import org.pyt.traveladvisor.service.AdvisoryTransferService;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.util.function.Tuple2;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/advisories")
@@ -20,23 +47,426 @@ public class AdvisoryController {
 
     private final AdvisoryService service;
     private final AdvisoryMapper mapper;
+    private final AdvisoryChangeStream changeStream;
+    private final AdvisoryJsonCache jsonCache;
+    private final JsonMapper jsonMapper;
+    private final CBORMapper cborMapper;
+    private final AdvisoryTransferService transfer;
 
     @Value("${app.sync.multi-city-audit:true}")
     private boolean multiCityAudit;
 
+    @Value("${app.read-through.enabled:false}")
+    private boolean readThroughEnabled;
+
+    @Value("${app.batch.max-cities:50}")
+    private int maxBatchCities;
+
+    @Value("${app.pagination.default-limit:50}")
+    private int defaultLimit;
+
+    @Value("${app.pagination.max-limit:500}")
+    private int maxLimit;
+
+    @Value("${app.suggest.max-limit:50}")
+    private int maxSuggestions;
+
+    // advisories change at most once per refresh, so by default caches keep them that long
+    @Value("${app.http.cache.max-age:${app.cluster.refresh-interval:PT30M}}")
+    private Duration cacheMaxAge;
+
+    // responses need a bearer token; a shared cache would serve them without one
+    @Value("${app.http.cache.public:false}")
+    private boolean publicCaching;
+
+    @Value("${app.http.gzip.enabled:false}")
+    private boolean gzipEnabled;
+
+    // the server would compress our pre-compressed body again
+    @Value("${server.compression.enabled:false}")
+    private boolean serverCompression;
+
     // ---------------- FETCH ----------------
 
+    // Written as raw buffers: full JSON advisories come from AdvisoryJsonCache,
+    // sparse selections, pages and CBOR (Accept: application/cbor) are encoded per request.
     @GetMapping
-    public Mono<ApiResponse<List<AdvisoryResponseDto>>> get(
+    public Mono<ResponseEntity<Flux<DataBuffer>>> get(
             @RequestParam(required = false) String city,
-            @RequestParam(required = false) String country) {
+            @RequestParam(required = false) String country,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) Boolean readThrough,
+            ServerWebExchange exchange) {
 
-        return service.fetch(city, country)
-                .map(mapper::toDto)
+        Set<AdvisoryField> selected = AdvisoryField.parse(fields);
+
+        DataBufferFactory buffers = exchange.getResponse().bufferFactory();
+
+        // every representation below, empty ones included, depends on Accept
+        exchange.getResponse().getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+
+        if (city == null && country == null) {
+            return page(after, limit, selected, exchange);
+        }
+
+        // ?readThrough=false opts a request out; it cannot turn on a disabled feature
+        boolean syncOnMiss = city != null && readThroughEnabled && (readThrough == null || readThrough);
+
+        // the 304 check runs on the documents, before any mapping or serialization
+        return (syncOnMiss ? service.fetchOrSync(city) : service.fetch(city, country))
+                .collectList()
+                .filter(docs -> !notModified(exchange, docs, selected))
+                .flatMap(docs -> {
+                    if (gzipEnabled) {
+                        exchange.getResponse().getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                    }
+
+                    if (wantsCbor(exchange) || !selected.containsAll(AdvisoryField.ALL)) {
+                        return Flux.fromIterable(docs)
+                                .transform(RequestTiming.timedMap("mapping", (TravelAdvisory adv) -> mapper.toDto(adv, selected)))
+                                .collectList()
+                                .map(dtos -> encoded(ApiResponse.success(dtos), exchange));
+                    }
+
+                    if (servesGzip(exchange, docs, selected)) {
+                        return RequestTiming.time("mapping", Mono.fromCallable(() -> jsonCache.gzippedEnvelope(docs.get(0))))
+                                .map(gzipped -> ResponseEntity.ok()
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                                        .body(Flux.just(buffers.wrap(gzipped))));
+                    }
+
+                    return RequestTiming.time("mapping", Mono.fromCallable(() -> jsonCache.envelope(docs, buffers)))
+                            .map(body -> ResponseEntity.ok()
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .body(body));
+                });
+    }
+
+    private ResponseEntity<Flux<DataBuffer>> encoded(Object body, ServerWebExchange exchange) {
+
+        boolean cbor = wantsCbor(exchange);
+        byte[] bytes = cbor ? cborMapper.writeValueAsBytes(body) : jsonMapper.writeValueAsBytes(body);
+
+        return ResponseEntity.ok()
+                .contentType(cbor ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON)
+                .body(Flux.just(exchange.getResponse().bufferFactory().wrap(bytes)));
+    }
+
+    // JSON stays the default; CBOR only when the client prefers it over JSON,
+    // so "application/cbor;q=0" or a higher-q application/json keep JSON
+    private boolean wantsCbor(ServerWebExchange exchange) {
+        List<MediaType> accepted = exchange.getRequest().getHeaders().getAccept();
+        double cbor = quality(MediaType.APPLICATION_CBOR, accepted);
+        return cbor > 0 && cbor > quality(MediaType.APPLICATION_JSON, accepted);
+    }
+
+    // q of the most specific range that covers the type (RFC 9110 12.5.1)
+    private double quality(MediaType type, List<MediaType> accepted) {
+
+        MediaType best = null;
+
+        for (MediaType range : accepted) {
+            if (range.includes(type) && (best == null || specificity(range) > specificity(best))) {
+                best = range;
+            }
+        }
+
+        return best != null ? best.getQualityValue() : 0;
+    }
+
+    private int specificity(MediaType range) {
+        return range.isWildcardType() ? 0 : range.isWildcardSubtype() ? 1 : 2;
+    }
+
+    // the cached gzip body only covers the full JSON of a single advisory
+    private boolean servesGzip(ServerWebExchange exchange, List<TravelAdvisory> docs, Set<AdvisoryField> fields) {
+        return gzipEnabled && !serverCompression && docs.size() == 1
+                && fields.containsAll(AdvisoryField.ALL) && !wantsCbor(exchange) && acceptsGzip(exchange);
+    }
+
+    // "gzip;q=0" is a refusal; "*" covers gzip unless gzip is listed on its own
+    private boolean acceptsGzip(ServerWebExchange exchange) {
+
+        Double gzip = null;
+        Double any = null;
+
+        for (String header : exchange.getRequest().getHeaders().getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String coding : header.split(",")) {
+                String[] parts = coding.split(";");
+                String name = parts[0].trim().toLowerCase();
+                double q = qualityParam(parts);
+
+                if (name.equals("gzip") || name.equals("x-gzip")) {
+                    gzip = q;
+                } else if (name.equals("*")) {
+                    any = q;
+                }
+            }
+        }
+
+        double q = gzip != null ? gzip : any != null ? any : 0;
+        return q > 0;
+    }
+
+    private double qualityParam(String[] parts) {
+
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.startsWith("q=") || param.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+
+        return 1;
+    }
+
+    // Strong ETag over (cityKey, syncedAt) of every document plus the field
+    // selection: a sync is the only thing that changes a stored advisory.
+    // Sets ETag, Last-Modified and Cache-Control, and the 304 status on a match.
+    private boolean notModified(ServerWebExchange exchange, List<TravelAdvisory> docs, Set<AdvisoryField> fields) {
+
+        if (docs.isEmpty()) {
+            return false;
+        }
+
+        // enum hashCodes differ between JVMs; ordinals are stable across nodes
+        long hash = 0;
+        for (AdvisoryField field : fields) {
+            hash |= 1L << field.ordinal();
+        }
+
+        // the CBOR and JSON representations must not share an ETag
+        if (wantsCbor(exchange)) {
+            hash |= 1L << 63;
+        }
+
+        // nor may the identity and gzip content-codings of a strong ETag
+        if (servesGzip(exchange, docs, fields)) {
+            hash |= 1L << 62;
+        }
+
+        Instant lastModified = Instant.EPOCH;
+        Instant staleAt = null;
+
+        for (TravelAdvisory doc : docs) {
+            Instant syncedAt = doc.getSyncedAt() != null ? doc.getSyncedAt() : Instant.EPOCH;
+            hash = 31 * (31 * hash + doc.getCityKey().hashCode()) + syncedAt.toEpochMilli();
+
+            if (syncedAt.isAfter(lastModified)) {
+                lastModified = syncedAt;
+            }
+
+            Instant next = syncedAt.plus(cacheMaxAge);
+            if (staleAt == null || next.isBefore(staleAt)) {
+                staleAt = next;
+            }
+        }
+
+        // fresh until the earliest document is due for its next refresh
+        Duration freshFor = Duration.between(Instant.now(), staleAt);
+        CacheControl cacheControl = CacheControl.maxAge(freshFor.isNegative() ? Duration.ZERO : freshFor);
+        exchange.getResponse().getHeaders().setCacheControl(
+                publicCaching ? cacheControl.cachePublic() : cacheControl.cachePrivate());
+
+        String etag = "\"" + docs.size() + "-" + Long.toHexString(hash) + "\"";
+
+        return exchange.checkNotModified(etag, lastModified);
+    }
+
+    private Mono<ResponseEntity<Flux<DataBuffer>>> page(String after, Integer limit, Set<AdvisoryField> fields,
+                                                        ServerWebExchange exchange) {
+
+        int size = pageSize(limit);
+
+        // one extra document tells us whether a next page exists
+        return service.fetchPage(after, size + 1, fields)
+                .collectList()
+                .flatMap(docs -> {
+                    boolean hasMore = docs.size() > size;
+                    List<TravelAdvisory> page = hasMore ? docs.subList(0, size) : docs;
+                    String nextCursor = hasMore ? page.get(size - 1).getCityKey() : null;
+
+                    if (!wantsCbor(exchange) && fields.containsAll(AdvisoryField.ALL)) {
+                        DataBufferFactory buffers = exchange.getResponse().bufferFactory();
+                        return RequestTiming.time("mapping", Mono.fromCallable(() -> jsonCache.envelope(page, nextCursor, buffers)))
+                                .map(body -> ResponseEntity.ok()
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .body(body));
+                    }
+
+                    return Flux.fromIterable(page)
+                            .transform(RequestTiming.timedMap("mapping", (TravelAdvisory adv) -> mapper.toDto(adv, fields)))
+                            .collectList()
+                            .map(dtos -> encoded(ApiResponse.page(dtos, nextCursor), exchange));
+                });
+    }
+
+    private int pageSize(Integer limit) {
+
+        if (limit == null) {
+            return defaultLimit;
+        }
+
+        if (limit < 1 || limit > maxLimit) {
+            throw new ValidationException("limit must be between 1 and " + maxLimit);
+        }
+
+        return limit;
+    }
+
+    // ---------------- BATCH ----------------
+
+    @GetMapping("/batch")
+    public Mono<ApiResponse<List<BatchAdvisoryDto>>> batch(
+            @RequestParam List<String> city,
+            @RequestParam(required = false) String fields) {
+
+        return fetchBatch(city, AdvisoryField.parse(fields));
+    }
+
+    @PostMapping("/batch")
+    public Mono<ApiResponse<List<BatchAdvisoryDto>>> batchPost(
+            @RequestBody List<String> cities,
+            @RequestParam(required = false) String fields) {
+
+        return fetchBatch(cities, AdvisoryField.parse(fields));
+    }
+
+    private Mono<ApiResponse<List<BatchAdvisoryDto>>> fetchBatch(List<String> cities, Set<AdvisoryField> fields) {
+
+        if (cities.isEmpty() || cities.size() > maxBatchCities) {
+            throw new ValidationException("Between 1 and " + maxBatchCities + " cities can be requested at once");
+        }
+
+        return service.fetchMany(cities)
+                .map(found -> ApiResponse.success(inRequestOrder(cities, found, fields)));
+    }
+
+    private List<BatchAdvisoryDto> inRequestOrder(List<String> cities,
+                                                  Map<String, TravelAdvisory> found,
+                                                  Set<AdvisoryField> fields) {
+
+        return cities.stream()
+                .map(city -> {
+                    TravelAdvisory advisory = found.get(service.cityKey(city));
+                    return advisory == null
+                            ? new BatchAdvisoryDto(city, false, null)
+                            : new BatchAdvisoryDto(city, true, mapper.toDto(advisory, fields));
+                })
+                .toList();
+    }
+
+    // ---------------- NEARBY ----------------
+
+    @GetMapping("/nearby")
+    public Mono<ApiResponse<List<AdvisoryResponseDto>>> nearby(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam double radiusKm,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields) {
+
+        Set<AdvisoryField> selected = AdvisoryField.parse(fields);
+
+        return service.findNearby(lat, lon, radiusKm, pageSize(limit), selected)
+                .transform(RequestTiming.timedMap("mapping", (TravelAdvisory adv) -> mapper.toDto(adv, selected)))
                 .collectList()
                 .map(ApiResponse::success);
     }
 
+    // ---------------- SUGGEST ----------------
+
+    @GetMapping("/suggest")
+    public ApiResponse<List<String>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        if (limit < 1 || limit > maxSuggestions) {
+            throw new ValidationException("limit must be between 1 and " + maxSuggestions);
+        }
+
+        return ApiResponse.success(service.suggest(prefix, limit));
+    }
+
+    // ---------------- STATS ----------------
+
+    @GetMapping("/stats")
+    public Mono<ApiResponse<List<AdvisoryStatsDto>>> stats(
+            @RequestParam(required = false) String groupBy) {
+
+        return service.stats(groupBy)
+                .collectList()
+                .map(ApiResponse::success);
+    }
+
+    // ---------------- HISTORY ----------------
+
+    @GetMapping("/history")
+    public Mono<ApiResponse<List<WeatherHistoryBucketDto>>> history(
+            @RequestParam String city,
+            @RequestParam(required = false) String interval,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+
+        return service.weatherHistory(city, interval, from, to)
+                .collectList()
+                .map(ApiResponse::success);
+    }
+
+    // ---------------- CHANGES ----------------
+
+    @GetMapping("/changes")
+    public Mono<ApiResponse<ChangeFeedDto>> changes(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields) {
+
+        Set<AdvisoryField> selected = AdvisoryField.parse(fields);
+
+        return service.changes(since, cursor, pageSize(limit))
+                .map(page -> ApiResponse.success(new ChangeFeedDto(
+                        page.upserts().stream().map(adv -> mapper.toChangeDto(adv, selected)).toList(),
+                        page.deletes().stream()
+                                .map(t -> new ChangeFeedDto.DeletedDto(t.getCityKey(), t.getCity(), t.getDeletedAt()))
+                                .toList(),
+                        page.nextCursor(),
+                        page.highWaterMark().toString()
+                )));
+    }
+
+    // ---------------- STREAM ----------------
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<AdvisoryEventDto>> stream(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String country,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+
+        String cityKey = city != null ? service.cityKey(city) : null;
+
+        Flux<ServerSentEvent<AdvisoryEventDto>> changes = changeStream.subscribe(cityKey, country, lastEventId)
+                .map(change -> ServerSentEvent.builder(change.event())
+                        .id(change.id())
+                        .event(change.event().getType().name())
+                        .build());
+
+        // keeps idle connections open through proxies
+        Flux<ServerSentEvent<AdvisoryEventDto>> heartbeat = Flux.interval(Duration.ofSeconds(15))
+                .map(tick -> ServerSentEvent.<AdvisoryEventDto>builder().comment("keep-alive").build());
+
+        // a RESET ends the response; the client reconnects with Last-Event-ID
+        return Flux.merge(changes, heartbeat)
+                .takeUntil(event -> AdvisoryEventDto.ChangeType.RESET.name().equals(event.event()));
+    }
+
     // ---------------- REFRESH ----------------
 
     @PostMapping("/refresh")
@@ -85,15 +515,36 @@ public class AdvisoryController {
                 .onErrorResume(err -> Mono.error(new RuntimeException(err.getMessage())));
     }
 
+    // ---------------- EXPORT / IMPORT ----------------
+
+    @GetMapping("/export")
+    public ResponseEntity<Flux<DataBuffer>> export(ServerWebExchange exchange) {
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"advisories.ndjson.gz\"")
+                .body(transfer.exportGzip(exchange.getResponse().bufferFactory()));
+    }
+
+    @PostMapping("/import")
+    public Mono<ApiResponse<String>> importAdvisories(ServerWebExchange exchange) {
+
+        return transfer.importNdjson(exchange.getRequest().getBody())
+                .map(count -> ApiResponse.success("Imported advisories: " + count));
+    }
+
     // ---------------- SEARCH ----------------
 
     @GetMapping("/search")
     public Mono<ApiResponse<List<AdvisoryResponseDto>>> search(
             @RequestParam double min,
-            @RequestParam double max) {
+            @RequestParam double max,
+            @RequestParam(required = false) String fields) {
 
-        return service.searchByTemp(min, max)
-                .map(mapper::toDto)
+        Set<AdvisoryField> selected = AdvisoryField.parse(fields);
+
+        return service.searchByTemp(min, max, selected)
+                .transform(RequestTiming.timedMap("mapping", (TravelAdvisory adv) -> mapper.toDto(adv, selected)))
                 .collectList()
                 .map(ApiResponse::success);
     }
@@ -0,0 +1,132 @@
+package org.pyt.traveladvisor.controller;
+
+import io.rsocket.exceptions.RejectedException;
+import lombok.RequiredArgsConstructor;
+import org.pyt.traveladvisor.admission.AdmissionBudgets;
+import org.pyt.traveladvisor.dto.AdvisoryEventDto;
+import org.pyt.traveladvisor.dto.AdvisoryField;
+import org.pyt.traveladvisor.dto.AdvisoryQueryDto;
+import org.pyt.traveladvisor.dto.AdvisoryResponseDto;
+import org.pyt.traveladvisor.dto.AdvisoryWithAuditDto;
+import org.pyt.traveladvisor.dto.BatchAdvisoryDto;
+import org.pyt.traveladvisor.exception.ValidationException;
+import org.pyt.traveladvisor.mapper.AdvisoryMapper;
+import org.pyt.traveladvisor.model.TravelAdvisory;
+import org.pyt.traveladvisor.service.AdvisoryChangeStream;
+import org.pyt.traveladvisor.service.AdvisoryService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.stereotype.Controller;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+// The AdvisoryService operations over RSocket, for services that keep one
+// long-lived multiplexed connection. Streams honour request(n) backpressure.
+// Token checks and admission happen in RSocketAdmissionInterceptor.
+@Controller
+@RequiredArgsConstructor
+public class AdvisoryRSocketController {
+
+    private final AdvisoryService service;
+    private final AdvisoryMapper mapper;
+    private final AdvisoryChangeStream changeStream;
+    private final AdmissionBudgets budgets;
+
+    @Value("${app.batch.max-cities:50}")
+    private int maxBatchCities;
+
+    @Value("${app.rsocket.lookup.max-in-flight:8}")
+    private int lookupMaxInFlight;
+
+    // ---------------- FETCH ----------------
+
+    @MessageMapping("advisories.fetch")
+    public Flux<AdvisoryResponseDto> fetch(AdvisoryQueryDto query) {
+
+        Set<AdvisoryField> fields = AdvisoryField.parse(query.getFields());
+
+        return service.fetch(query.getCity(), query.getCountry())
+                .map(advisory -> mapper.toDto(advisory, fields));
+    }
+
+    @MessageMapping("advisories.batch")
+    public Flux<BatchAdvisoryDto> batch(AdvisoryQueryDto query) {
+
+        if (query.getCities() == null || query.getCities().isEmpty() || query.getCities().size() > maxBatchCities) {
+            throw new ValidationException("Between 1 and " + maxBatchCities + " cities can be requested at once");
+        }
+
+        Set<AdvisoryField> fields = AdvisoryField.parse(query.getFields());
+
+        return service.fetchMany(query.getCities())
+                .flatMapIterable(found -> query.getCities().stream()
+                        .map(city -> {
+                            TravelAdvisory advisory = found.get(service.cityKey(city));
+                            return advisory == null
+                                    ? new BatchAdvisoryDto(city, false, null)
+                                    : new BatchAdvisoryDto(city, true, mapper.toDto(advisory, fields));
+                        })
+                        .toList());
+    }
+
+    // request-channel: many small lookups over one stream, answered in order;
+    // each lookup takes a read permit, and one channel has at most
+    // lookupMaxInFlight of them at a time
+    @MessageMapping("advisories.lookup")
+    public Flux<BatchAdvisoryDto> lookup(Flux<String> cities) {
+
+        return cities.flatMapSequential(city -> admitted(service.fetch(city, null)
+                        .next()
+                        .map(advisory -> new BatchAdvisoryDto(city, true, mapper.toDto(advisory)))
+                        .defaultIfEmpty(new BatchAdvisoryDto(city, false, null))
+                        .onErrorResume(ValidationException.class, e -> Mono.just(new BatchAdvisoryDto(city, false, null)))),
+                lookupMaxInFlight);
+    }
+
+    private <T> Mono<T> admitted(Mono<T> lookup) {
+        return Mono.defer(() -> {
+            AdmissionBudgets.Budget reads = budgets.reads();
+            if (!reads.tryAcquire()) {
+                return Mono.error(new RejectedException("Server is busy, retry in " + reads.retryAfter().toSeconds() + "s"));
+            }
+            return lookup.doFinally(signal -> reads.release());
+        });
+    }
+
+    // ---------------- SEARCH ----------------
+
+    @MessageMapping("advisories.search")
+    public Flux<AdvisoryResponseDto> search(AdvisoryQueryDto query) {
+
+        if (query.getMin() == null || query.getMax() == null) {
+            throw new ValidationException("min and max are required");
+        }
+
+        Set<AdvisoryField> fields = AdvisoryField.parse(query.getFields());
+
+        return service.searchByTemp(query.getMin(), query.getMax(), fields)
+                .map(advisory -> mapper.toDto(advisory, fields));
+    }
+
+    // ---------------- REFRESH ----------------
+
+    @MessageMapping("advisories.refresh")
+    public Flux<AdvisoryWithAuditDto> refresh(AdvisoryQueryDto query) {
+
+        return service.refresh(query.getCity(), query.getCountry())
+                .map(tuple -> new AdvisoryWithAuditDto(mapper.toDto(tuple.getT1()), tuple.getT2()));
+    }
+
+    // ---------------- CHANGES ----------------
+
+    @MessageMapping("advisories.changes")
+    public Flux<AdvisoryEventDto> changes(AdvisoryQueryDto query) {
+
+        String cityKey = query.getCity() != null ? service.cityKey(query.getCity()) : null;
+
+        return changeStream.subscribe(cityKey, query.getCountry(), null)
+                .map(AdvisoryChangeStream.Change::event);
+    }
+}
@@ -0,0 +1,23 @@
+package org.pyt.traveladvisor.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AdvisoryEventDto {
+
+    private ChangeType type;
+    private String cityKey; // absent for resets
+    private AdvisoryResponseDto advisory; // absent for deletes and resets
+
+    public enum ChangeType {
+        UPSERT,
+        DELETE,
+        RESET // changes were missed: reconnect with the last event id, or re-sync via /changes
+    }
+}
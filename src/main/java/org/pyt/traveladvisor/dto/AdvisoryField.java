@@ -0,0 +1,74 @@
+package org.pyt.traveladvisor.dto;
+
+import org.pyt.traveladvisor.exception.ValidationException;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+public enum AdvisoryField {
+    CITY("city", "city"),
+    WEATHER("weather", "weather"),
+    TEMPERATURE("temperature", "weather.temperature"),
+    COUNTRY("country", "country"),
+    LOCATION("location", "location"),
+    SYNCED_AT("syncedAt", "syncedAt"),
+    ADVISORY("advisory", "weather"); // the advisory text is built from the full weather
+
+    public static final Set<AdvisoryField> ALL =
+            Collections.unmodifiableSet(EnumSet.allOf(AdvisoryField.class));
+
+    private final String param;
+    private final String path;
+
+    AdvisoryField(String param, String path) {
+        this.param = param;
+        this.path = path;
+    }
+
+    // "fields=city,temperature,advisory"; missing or blank selects everything
+    public static Set<AdvisoryField> parse(String fields) {
+
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+
+        EnumSet<AdvisoryField> selected = EnumSet.noneOf(AdvisoryField.class);
+
+        for (String name : fields.split(",")) {
+            selected.add(fromParam(name.trim()));
+        }
+
+        return selected;
+    }
+
+    // Mongo paths to include; null when the whole document is needed
+    public static Set<String> projection(Set<AdvisoryField> fields) {
+
+        if (fields.containsAll(ALL)) {
+            return null;
+        }
+
+        Set<String> paths = new LinkedHashSet<>();
+        fields.forEach(f -> paths.add(f.path));
+
+        // "weather" and "weather.temperature" together is a path collision in Mongo
+        if (paths.contains(WEATHER.path)) {
+            paths.remove(TEMPERATURE.path);
+        }
+
+        return paths;
+    }
+
+    private static AdvisoryField fromParam(String name) {
+
+        for (AdvisoryField field : values()) {
+            if (field.param.equalsIgnoreCase(name)) {
+                return field;
+            }
+        }
+
+        throw new ValidationException("Unknown field: " + name);
+    }
+}
@@ -0,0 +1,21 @@
+package org.pyt.traveladvisor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// RSocket request payload; each route reads the parameters it needs
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AdvisoryQueryDto {
+
+    private String city;
+    private String country;
+    private List<String> cities; // advisories.batch
+    private Double min; // advisories.search
+    private Double max;
+    private String fields;
+}
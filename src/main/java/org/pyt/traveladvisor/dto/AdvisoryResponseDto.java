@@ -1,5 +1,7 @@
 package org.pyt.traveladvisor.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -11,11 +13,16 @@ import java.util.Map;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL) // sparse when a fields= selector is used
+// explicit order: the JSON and CBOR encodings are a contract for internal consumers
+@JsonPropertyOrder({"cityKey", "city", "weather", "country", "location", "syncedAt", "advisory"})
 public class AdvisoryResponseDto {
 
+    private String cityKey; // only set on the change feed
     private String city;
     private WeatherDto weather;
     private CountryDto country;
+    private LocationDto location;
     private Instant syncedAt;
     private String advisory;
 
@@ -37,22 +44,38 @@ public class AdvisoryResponseDto {
     @Data
     @AllArgsConstructor
     @NoArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonPropertyOrder({"description", "temperature", "feelsLike", "humidity", "windSpeed", "sunrise", "sunset"})
     public static class WeatherDto {
 
         private String description;
-        private double temperature;
-        private double feelsLike;
-        private int humidity;
-        private double windSpeed;
+        private Double temperature;
+        private Double feelsLike;
+        private Integer humidity;
+        private Double windSpeed;
         private String sunrise;
         private String sunset;
     }
 
+    // -------- LOCATION --------
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @JsonPropertyOrder({"lat", "lon"})
+    public static class LocationDto {
+
+        private double lat;
+        private double lon;
+    }
+
     // -------- COUNTRY --------
 
     @Data
     @AllArgsConstructor
     @NoArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonPropertyOrder({"name", "currency", "capital", "timezones", "languages", "flagUrl", "population", "region"})
     public static class CountryDto {
 
         private String name;
@@ -61,7 +84,7 @@ public class AdvisoryResponseDto {
         private List<String> timezones;
         private Map<String, String> languages;
         private String flagUrl;
-        private long population;
+        private Long population;
         private String region;
     }
 }
@@ -0,0 +1,30 @@
+package org.pyt.traveladvisor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AdvisoryStatsDto {
+
+    private String group; // country name or region
+    private long count;
+
+    private double minTemperature;
+    private double maxTemperature;
+    private double avgTemperature;
+
+    private double minHumidity;
+    private double maxHumidity;
+    private double avgHumidity;
+
+    private double minWindSpeed;
+    private double maxWindSpeed;
+    private double avgWindSpeed;
+
+    private Map<String, Long> conditions; // weather description -> city count
+}
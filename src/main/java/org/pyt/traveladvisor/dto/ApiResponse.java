@@ -1,6 +1,7 @@
 package org.pyt.traveladvisor.dto;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -9,22 +10,28 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"status", "type", "data", "message", "nextCursor"}) // AdvisoryJsonCache relies on this order
 public class ApiResponse<T> {
 
     private String status;
     private AuditType type; // optional
     private T data;
     private String message;
+    private String nextCursor; // optional, set on paged listings
 
     public static <T> ApiResponse<T> success(T data) {
-        return new ApiResponse<>("SUCCESS", null, data, null);
+        return new ApiResponse<>("SUCCESS", null, data, null, null);
     }
 
     public static <T> ApiResponse<T> success(T data, AuditType type) {
-        return new ApiResponse<>("SUCCESS", type, data, null);
+        return new ApiResponse<>("SUCCESS", type, data, null, null);
+    }
+
+    public static <T> ApiResponse<T> page(T data, String nextCursor) {
+        return new ApiResponse<>("SUCCESS", null, data, null, nextCursor);
     }
 
     public static <T> ApiResponse<T> failure(String message) {
-        return new ApiResponse<>("FAILED", null, null, message);
+        return new ApiResponse<>("FAILED", null, null, message, null);
     }
 }
@@ -0,0 +1,17 @@
+package org.pyt.traveladvisor.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchAdvisoryDto {
+
+    private String city; // as requested
+    private boolean found;
+    private AdvisoryResponseDto advisory;
+}
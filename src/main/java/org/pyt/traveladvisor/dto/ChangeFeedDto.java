@@ -0,0 +1,37 @@
+package org.pyt.traveladvisor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ChangeFeedDto {
+
+    // every upsert carries cityKey and syncedAt, whatever fields= selects
+    private List<AdvisoryResponseDto> upserts;
+    private List<DeletedDto> deleted;
+
+    // more changes in this poll: pass back as ?cursor=
+    private String nextCursor;
+
+    // once nextCursor is null, pass back as ?since= on the next poll; polls
+    // overlap by the allowed clock skew, so drop repeats by (cityKey, syncedAt)
+    private String highWaterMark;
+
+    // -------- DELETED --------
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class DeletedDto {
+
+        private String cityKey;
+        private String city;
+        private Instant deletedAt;
+    }
+}
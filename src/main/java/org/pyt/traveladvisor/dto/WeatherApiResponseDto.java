@@ -7,12 +7,21 @@ import java.util.List;
 @Data
 public class WeatherApiResponseDto {
 
+    private long id; // OpenWeather city id
+    private String name; // OpenWeather's canonical city name
+    private CoordDto coord;
     private MainDto main;
     private List<WeatherDto> weather;
     private SysDto sys;
     private WindDto wind;
     private int timezone;
 
+    @Data
+    public static class CoordDto {
+        private double lon;
+        private double lat;
+    }
+
     @Data
     public static class MainDto {
         private double temp;
@@ -0,0 +1,27 @@
+package org.pyt.traveladvisor.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WeatherHistoryBucketDto {
+
+    private Instant bucket; // start of the hour or day
+    private int samples;
+
+    private double minTemperature;
+    private double maxTemperature;
+    private double avgTemperature;
+
+    private double minHumidity;
+    private double maxHumidity;
+    private double avgHumidity;
+
+    private double avgWindSpeed;
+    private double maxWindSpeed;
+}
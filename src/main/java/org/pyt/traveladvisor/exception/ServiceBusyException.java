@@ -0,0 +1,17 @@
+package org.pyt.traveladvisor.exception;
+
+import java.time.Duration;
+
+public class ServiceBusyException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ServiceBusyException(Duration retryAfter) {
+        super("Server is busy, retry later");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -1,10 +1,14 @@
 package org.pyt.traveladvisor.mapper;
 
+import org.pyt.traveladvisor.dto.AdvisoryField;
 import org.pyt.traveladvisor.dto.AdvisoryResponseDto;
 import org.pyt.traveladvisor.model.TravelAdvisory;
 import org.pyt.traveladvisor.service.AdvisoryEngine;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 import org.springframework.stereotype.Component;
 
+import java.util.Set;
+
 @Component
 public class AdvisoryMapper {
 
@@ -46,8 +50,81 @@ public class AdvisoryMapper {
                 adv.getSyncedAt()
         );
 
+        dto.setLocation(location(adv.getLocation()));
         dto.setAdvisory(engine.build(adv.getWeather()));
 
         return dto;
     }
+
+    // sparse mapping for fields=; only the selected parts are allocated
+    public AdvisoryResponseDto toDto(TravelAdvisory adv, Set<AdvisoryField> fields) {
+
+        if (fields.containsAll(AdvisoryField.ALL)) {
+            return toDto(adv);
+        }
+
+        AdvisoryResponseDto dto = new AdvisoryResponseDto();
+
+        if (fields.contains(AdvisoryField.CITY)) {
+            dto.setCity(adv.getCity());
+        }
+
+        if (fields.contains(AdvisoryField.WEATHER)) {
+            dto.setWeather(new AdvisoryResponseDto.WeatherDto(
+                    adv.getWeather().getDescription(),
+                    adv.getWeather().getTemperature(),
+                    adv.getWeather().getFeelsLike(),
+                    adv.getWeather().getHumidity(),
+                    adv.getWeather().getWindSpeed(),
+                    adv.getWeather().getSunrise(),
+                    adv.getWeather().getSunset()
+            ));
+        } else if (fields.contains(AdvisoryField.TEMPERATURE)) {
+            AdvisoryResponseDto.WeatherDto weather = new AdvisoryResponseDto.WeatherDto();
+            weather.setTemperature(adv.getWeather().getTemperature());
+            dto.setWeather(weather);
+        }
+
+        if (fields.contains(AdvisoryField.COUNTRY)) {
+            dto.setCountry(new AdvisoryResponseDto.CountryDto(
+                    adv.getCountry().getName(),
+                    adv.getCountry().getCurrency(),
+                    adv.getCountry().getCapital(),
+                    adv.getCountry().getTimezones(),
+                    adv.getCountry().getLanguages(),
+                    adv.getCountry().getFlagUrl(),
+                    adv.getCountry().getPopulation(),
+                    adv.getCountry().getRegion()
+            ));
+        }
+
+        if (fields.contains(AdvisoryField.LOCATION)) {
+            dto.setLocation(location(adv.getLocation()));
+        }
+
+        if (fields.contains(AdvisoryField.SYNCED_AT)) {
+            dto.setSyncedAt(adv.getSyncedAt());
+        }
+
+        if (fields.contains(AdvisoryField.ADVISORY)) {
+            dto.setAdvisory(engine.build(adv.getWeather()));
+        }
+
+        return dto;
+    }
+
+    // change feed entry: consumers de-duplicate by (cityKey, syncedAt), so both are always present
+    public AdvisoryResponseDto toChangeDto(TravelAdvisory adv, Set<AdvisoryField> fields) {
+
+        AdvisoryResponseDto dto = toDto(adv, fields);
+        dto.setCityKey(adv.getCityKey());
+        dto.setSyncedAt(adv.getSyncedAt());
+
+        return dto;
+    }
+
+    private AdvisoryResponseDto.LocationDto location(GeoJsonPoint point) {
+        // advisories synced before coordinates were captured have none
+        return point == null ? null : new AdvisoryResponseDto.LocationDto(point.getY(), point.getX());
+    }
 }
@@ -0,0 +1,124 @@
+package org.pyt.traveladvisor.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.pyt.traveladvisor.dto.AuditType;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class AdvisoryMetrics {
+
+    public static final String FLOW_ALL = "all";
+    public static final String FLOW_COUNTRY = "country";
+
+    private final MeterRegistry registry;
+    private final Map<AuditType, Counter> auditCounters = new EnumMap<>(AuditType.class);
+    private final Map<String, AtomicInteger> inFlight;
+
+    public AdvisoryMetrics(MeterRegistry registry) {
+        this.registry = registry;
+
+        for (AuditType type : AuditType.values()) {
+            auditCounters.put(type, Counter.builder("advisory.sync.audit")
+                    .description("Advisories written by sync, by audit type")
+                    .tag("type", type.name())
+                    .register(registry));
+        }
+
+        // gauges only hold weak references, so the counters are kept here
+        this.inFlight = Map.of(
+                FLOW_ALL, inFlightGauge(FLOW_ALL),
+                FLOW_COUNTRY, inFlightGauge(FLOW_COUNTRY)
+        );
+    }
+
+    // ---------------- EXTERNAL API ----------------
+
+    // takes the whole response so the tags carry its real status, not an assumed 2xx
+    public <T> Mono<T> timeUpstream(String upstream, String endpoint, Mono<ResponseEntity<T>> call) {
+        return RequestTiming.time(upstream, Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            AtomicBoolean stopped = new AtomicBoolean();
+            return call
+                    .doOnNext(response -> stopUpstream(stopped, sample, upstream, endpoint,
+                            outcome(response.getStatusCode()), statusClass(response.getStatusCode())))
+                    .doOnError(err -> stopUpstream(stopped, sample, upstream, endpoint, outcome(err), status(err)))
+                    .doOnCancel(() -> stopUpstream(stopped, sample, upstream, endpoint, "CANCELLED", "NONE"))
+                    .mapNotNull(ResponseEntity::getBody);
+        }));
+    }
+
+    private void stopUpstream(AtomicBoolean stopped, Timer.Sample sample, String upstream, String endpoint, String outcome, String status) {
+
+        // a cancel can still arrive after the response was recorded
+        if (!stopped.compareAndSet(false, true)) {
+            return;
+        }
+
+        sample.stop(Timer.builder("external.api.requests")
+                .description("Latency of calls to upstream APIs")
+                .tags("upstream", upstream, "endpoint", endpoint, "outcome", outcome, "status", status)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    private String outcome(HttpStatusCode code) {
+        if (code.is2xxSuccessful()) {
+            return "SUCCESS";
+        }
+        if (code.is3xxRedirection()) {
+            return "REDIRECTION";
+        }
+        if (code.is1xxInformational()) {
+            return "INFORMATIONAL";
+        }
+        return code.is4xxClientError() ? "CLIENT_ERROR" : "SERVER_ERROR";
+    }
+
+    private String outcome(Throwable err) {
+        if (err instanceof WebClientResponseException e) {
+            return outcome(e.getStatusCode());
+        }
+        return "UNKNOWN";
+    }
+
+    private String statusClass(HttpStatusCode code) {
+        return code.value() / 100 + "xx";
+    }
+
+    private String status(Throwable err) {
+        if (err instanceof WebClientResponseException e) {
+            return statusClass(e.getStatusCode());
+        }
+        return "NONE";
+    }
+
+    // ---------------- SYNC ----------------
+
+    public void recordAudit(AuditType type) {
+        auditCounters.get(type).increment();
+    }
+
+    public <T> Mono<T> trackInFlight(String flow, Mono<T> sync) {
+        AtomicInteger gauge = inFlight.get(flow);
+        return Mono.defer(() -> {
+            gauge.incrementAndGet();
+            return sync.doFinally(signal -> gauge.decrementAndGet());
+        });
+    }
+
+    private AtomicInteger inFlightGauge(String flow) {
+        return registry.gauge("advisory.sync.inflight", Tags.of("flow", flow), new AtomicInteger());
+    }
+}
@@ -0,0 +1,92 @@
+package org.pyt.traveladvisor.metrics;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Per-request phase timings, carried in the Reactor context by ServerTimingFilter.
+// Concurrent work in the same phase (e.g. a country refresh) is summed.
+public class RequestTiming {
+
+    public static final String CONTEXT_KEY = RequestTiming.class.getName();
+
+    private final Instant startedAt = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final Map<String, LongAdder> phases = new ConcurrentHashMap<>();
+    private volatile long lastPhaseEnd = startNanos;
+
+    public void record(String phase, long nanos) {
+        phases.computeIfAbsent(phase, p -> new LongAdder()).add(nanos);
+        lastPhaseEnd = System.nanoTime();
+    }
+
+    // time between the last completed phase and the first response buffer
+    void recordSerialization() {
+        record("serialization", System.nanoTime() - lastPhaseEnd);
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Map<String, Double> toMillis() {
+        Map<String, Double> millis = new LinkedHashMap<>();
+        phases.forEach((phase, nanos) -> millis.put(phase, nanos.sum() / 1_000_000.0));
+        millis.put("total", (System.nanoTime() - startNanos) / 1_000_000.0);
+        return millis;
+    }
+
+    public String toHeaderValue() {
+        StringJoiner header = new StringJoiner(", ");
+        toMillis().forEach((phase, ms) ->
+                header.add(phase + ";dur=" + String.format(Locale.ROOT, "%.2f", ms)));
+        return header.toString();
+    }
+
+    // ---------------- OPERATORS ----------------
+
+    public static <T> Mono<T> time(String phase, Mono<T> source) {
+        return Mono.deferContextual(ctx -> {
+            RequestTiming timing = ctx.getOrDefault(CONTEXT_KEY, null);
+            if (timing == null) {
+                return source;
+            }
+            long start = System.nanoTime();
+            return source.doFinally(signal -> timing.record(phase, System.nanoTime() - start));
+        });
+    }
+
+    public static <T> Flux<T> time(String phase, Flux<T> source) {
+        return Flux.deferContextual(ctx -> {
+            RequestTiming timing = ctx.getOrDefault(CONTEXT_KEY, null);
+            if (timing == null) {
+                return source;
+            }
+            long start = System.nanoTime();
+            return source.doFinally(signal -> timing.record(phase, System.nanoTime() - start));
+        });
+    }
+
+    public static <T, R> Function<Flux<T>, Flux<R>> timedMap(String phase, Function<T, R> mapper) {
+        return flux -> flux.transformDeferredContextual((source, ctx) -> {
+            RequestTiming timing = ctx.getOrDefault(CONTEXT_KEY, null);
+            if (timing == null) {
+                return source.map(mapper);
+            }
+            return source.map(value -> {
+                long start = System.nanoTime();
+                R mapped = mapper.apply(value);
+                timing.record(phase, System.nanoTime() - start);
+                return mapped;
+            });
+        });
+    }
+}
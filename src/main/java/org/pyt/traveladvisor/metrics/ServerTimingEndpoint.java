@@ -0,0 +1,45 @@
+package org.pyt.traveladvisor.metrics;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "servertiming")
+public class ServerTimingEndpoint {
+
+    private static final int CAPACITY = 100;
+
+    private final Deque<Trace> traces = new ArrayDeque<>(CAPACITY);
+
+    public void add(Trace trace) {
+        synchronized (traces) {
+            if (traces.size() == CAPACITY) {
+                traces.removeFirst();
+            }
+            traces.addLast(trace);
+        }
+    }
+
+    @ReadOperation
+    public List<Trace> recent() {
+        synchronized (traces) {
+            return new ArrayList<>(traces);
+        }
+    }
+
+    public record Trace(
+            Instant timestamp,
+            String method,
+            String path,
+            Integer status,
+            Map<String, Double> phasesMs) {
+    }
+}
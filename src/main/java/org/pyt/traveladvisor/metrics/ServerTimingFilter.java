@@ -0,0 +1,88 @@
+package org.pyt.traveladvisor.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.reactivestreams.Publisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class ServerTimingFilter implements WebFilter {
+
+    private static final String HEADER = "Server-Timing";
+
+    private final ServerTimingEndpoint endpoint;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange,
+                             WebFilterChain chain) {
+
+        RequestTiming timing = new RequestTiming();
+        ServerHttpRequest request = exchange.getRequest();
+        ServerHttpResponse response = exchange.getResponse();
+
+        response.beforeCommit(() -> {
+            response.getHeaders().add(HEADER, timing.toHeaderValue());
+            return Mono.empty();
+        });
+
+        ServerWebExchange timed = exchange.mutate()
+                .response(new SerializationTimingResponse(response, timing))
+                .build();
+
+        return chain.filter(timed)
+                .doFinally(signal -> endpoint.add(new ServerTimingEndpoint.Trace(
+                        timing.getStartedAt(),
+                        request.getMethod().name(),
+                        request.getPath().value(),
+                        statusOf(response),
+                        timing.toMillis())))
+                .contextWrite(Context.of(RequestTiming.CONTEXT_KEY, timing));
+    }
+
+    private Integer statusOf(ServerHttpResponse response) {
+        HttpStatusCode status = response.getStatusCode();
+        return status != null ? status.value() : null;
+    }
+
+    // records "serialization" once the first encoded buffer reaches the response
+    private static class SerializationTimingResponse extends ServerHttpResponseDecorator {
+
+        private final RequestTiming timing;
+        private final AtomicBoolean recorded = new AtomicBoolean();
+
+        SerializationTimingResponse(ServerHttpResponse delegate, RequestTiming timing) {
+            super(delegate);
+            this.timing = timing;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (body instanceof Mono<? extends DataBuffer> mono) {
+                return super.writeWith(mono.doOnNext(buffer -> onFirstBuffer()));
+            }
+            return super.writeWith(Flux.from(body).doOnNext(buffer -> onFirstBuffer()));
+        }
+
+        private void onFirstBuffer() {
+            if (recorded.compareAndSet(false, true)) {
+                timing.recordSerialization();
+            }
+        }
+    }
+}
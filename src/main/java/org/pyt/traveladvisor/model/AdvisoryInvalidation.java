@@ -0,0 +1,35 @@
+package org.pyt.traveladvisor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// capped collection, tailed by every node
+@Document("advisory_invalidations")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AdvisoryInvalidation {
+
+    @Id
+    private String id;
+
+    private String cityKey;
+
+    private String city;
+
+    private Type type;
+
+    private String origin; // instance id of the publisher
+
+    private Instant publishedAt;
+
+    public enum Type {
+        SYNCED,
+        DELETED
+    }
+}
@@ -0,0 +1,26 @@
+package org.pyt.traveladvisor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Document("advisory_tombstones")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AdvisoryTombstone {
+
+    @Id
+    private String cityKey;
+
+    private String city;
+
+    // TTL index: consumers polling less often than this need a full re-sync
+    @Indexed(expireAfter = "7d")
+    private Instant deletedAt;
+}
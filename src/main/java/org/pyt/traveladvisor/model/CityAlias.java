@@ -0,0 +1,24 @@
+package org.pyt.traveladvisor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// normalized user-supplied name -> canonical cityKey (the OpenWeather city id)
+@Document("city_aliases")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CityAlias {
+
+    @Id
+    private String alias;
+
+    private String cityKey;
+
+    private Instant createdAt;
+}
@@ -0,0 +1,19 @@
+package org.pyt.traveladvisor.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Document("refresh_leases")
+@Data
+public class RefreshLease {
+
+    @Id
+    private Integer partition;
+
+    private String owner;
+
+    private Instant expiresAt;
+}
@@ -0,0 +1,17 @@
+package org.pyt.traveladvisor.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Document("refresh_nodes")
+@Data
+public class RefreshNode {
+
+    @Id
+    private String instanceId;
+
+    private Instant expiresAt;
+}
@@ -2,12 +2,24 @@ package org.pyt.traveladvisor.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
 
 @Document("advisories")
+@CompoundIndexes({
+        @CompoundIndex(name = "weather_temperature", def = "{'weather.temperature': 1}"),
+        // case-insensitive, for the country lookups in findByCountryName
+        @CompoundIndex(name = "country_name_ci", def = "{'country.name': 1}", collation = "{ 'locale': 'en', 'strength': 2 }"),
+        // /changes pages in (syncedAt, cityKey) order
+        @CompoundIndex(name = "synced_at_key", def = "{'syncedAt': 1, '_id': 1}")
+})
 @Data
 public class TravelAdvisory {
 
@@ -20,6 +32,9 @@ public class TravelAdvisory {
 
     private CountryInfo country;
 
+    @GeoSpatialIndexed(type = GeoSpatialIndexType.GEO_2DSPHERE)
+    private GeoJsonPoint location;
+
     private Instant syncedAt;
 
     @Indexed()
@@ -0,0 +1,29 @@
+package org.pyt.traveladvisor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// time-series collection: timestamp is the time field, cityKey the meta field
+@Document("weather_history")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WeatherSample {
+
+    @Id
+    private String id;
+
+    private Instant timestamp;
+
+    private String cityKey;
+
+    private double temperature;
+    private double feelsLike;
+    private int humidity;
+    private double windSpeed;
+}
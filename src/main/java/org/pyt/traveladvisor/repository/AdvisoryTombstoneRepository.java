@@ -0,0 +1,18 @@
+package org.pyt.traveladvisor.repository;
+
+import org.pyt.traveladvisor.model.AdvisoryTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+
+public interface AdvisoryTombstoneRepository
+        extends ReactiveMongoRepository<AdvisoryTombstone, String> {
+
+    // strictly after (deletedAt, cityKey)
+    @Query(value = "{ $or: [ { deletedAt: { $gt: ?0 } }, { deletedAt: ?0, _id: { $gt: ?1 } } ] }",
+            sort = "{ deletedAt: 1, _id: 1 }")
+    Flux<AdvisoryTombstone> findDeletedAfter(Instant deletedAt, String cityKey, Pageable page);
+}
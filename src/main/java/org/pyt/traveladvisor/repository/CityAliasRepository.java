@@ -0,0 +1,8 @@
+package org.pyt.traveladvisor.repository;
+
+import org.pyt.traveladvisor.model.CityAlias;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface CityAliasRepository
+        extends ReactiveMongoRepository<CityAlias, String> {
+}
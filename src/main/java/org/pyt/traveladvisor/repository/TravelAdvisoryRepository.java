@@ -1,8 +1,22 @@
 package org.pyt.traveladvisor.repository;
 
 import org.pyt.traveladvisor.model.TravelAdvisory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
 
 public interface TravelAdvisoryRepository
-        extends ReactiveMongoRepository<TravelAdvisory, String> {
-}
\ No newline at end of file
+        extends ReactiveMongoRepository<TravelAdvisory, String>, TravelAdvisoryRepositoryCustom {
+
+    // strictly after (syncedAt, cityKey), served by the synced_at_key index
+    @Query(value = "{ $or: [ { syncedAt: { $gt: ?0 } }, { syncedAt: ?0, _id: { $gt: ?1 } } ] }",
+            sort = "{ syncedAt: 1, _id: 1 }")
+    Flux<TravelAdvisory> findChangedAfter(Instant syncedAt, String cityKey, Pageable page);
+
+    // the collation must match country_name_ci for the index to be used
+    @Query(value = "{ 'country.name': ?0 }", collation = "{ 'locale': 'en', 'strength': 2 }")
+    Flux<TravelAdvisory> findByCountryName(String country);
+}
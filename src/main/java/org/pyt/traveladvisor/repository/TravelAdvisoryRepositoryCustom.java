@@ -0,0 +1,22 @@
+package org.pyt.traveladvisor.repository;
+
+import org.pyt.traveladvisor.dto.AdvisoryField;
+import org.pyt.traveladvisor.dto.AdvisoryStatsDto;
+import org.pyt.traveladvisor.model.TravelAdvisory;
+import reactor.core.publisher.Flux;
+
+import java.util.Set;
+
+// Queries built on ReactiveMongoTemplate: anything that takes a field
+// projection or a pipeline. Fixed-shape lookups stay as @Query methods on
+// TravelAdvisoryRepository.
+public interface TravelAdvisoryRepositoryCustom {
+
+    Flux<TravelAdvisory> findPage(String after, int limit, Set<AdvisoryField> fields);
+
+    Flux<TravelAdvisory> findByTemperatureBetween(double min, double max, Set<AdvisoryField> fields);
+
+    Flux<TravelAdvisory> findNear(double lat, double lon, double radiusMeters, int limit, Set<AdvisoryField> fields);
+
+    Flux<AdvisoryStatsDto> aggregateStats(String groupPath);
+}
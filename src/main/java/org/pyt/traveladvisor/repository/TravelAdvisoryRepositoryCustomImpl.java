@@ -0,0 +1,135 @@
+package org.pyt.traveladvisor.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.pyt.traveladvisor.dto.AdvisoryField;
+import org.pyt.traveladvisor.dto.AdvisoryStatsDto;
+import org.pyt.traveladvisor.model.TravelAdvisory;
+import org.pyt.traveladvisor.util.MongoUtil;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+@RequiredArgsConstructor
+public class TravelAdvisoryRepositoryCustomImpl implements TravelAdvisoryRepositoryCustom {
+
+    private final ReactiveMongoTemplate template;
+
+    @Override
+    public Flux<TravelAdvisory> findPage(String after, int limit, Set<AdvisoryField> fields) {
+
+        // keyset page over _id: a bounded range scan of the primary index
+        Query query = new Query(Criteria.where("cityKey").gt(after))
+                .with(Sort.by(Sort.Direction.ASC, "cityKey"))
+                .limit(limit);
+
+        return template.find(project(query, fields), TravelAdvisory.class);
+    }
+
+    @Override
+    public Flux<TravelAdvisory> findByTemperatureBetween(double min, double max, Set<AdvisoryField> fields) {
+
+        Query query = new Query(Criteria.where("weather.temperature").gte(min).lte(max));
+
+        return template.find(project(query, fields), TravelAdvisory.class);
+    }
+
+    @Override
+    public Flux<TravelAdvisory> findNear(double lat, double lon, double radiusMeters, int limit, Set<AdvisoryField> fields) {
+
+        // $nearSphere on the 2dsphere index; results come back nearest first
+        Query query = new Query(Criteria.where("location")
+                .nearSphere(new GeoJsonPoint(lon, lat))
+                .maxDistance(radiusMeters))
+                .limit(limit);
+
+        return template.find(project(query, fields), TravelAdvisory.class);
+    }
+
+    @Override
+    public Flux<AdvisoryStatsDto> aggregateStats(String groupPath) {
+
+        String group = "$" + groupPath;
+
+        // first pass per (group, condition) so the histogram comes out of the same scan,
+        // second pass folds the conditions back into one document per group
+        List<Document> pipeline = List.of(
+                new Document("$group", new Document("_id", new Document("group", group)
+                        .append("condition", new Document("$ifNull", List.of("$weather.description", "unknown"))))
+                        .append("count", new Document("$sum", 1))
+                        .append("minTemperature", new Document("$min", "$weather.temperature"))
+                        .append("maxTemperature", new Document("$max", "$weather.temperature"))
+                        .append("sumTemperature", new Document("$sum", "$weather.temperature"))
+                        .append("minHumidity", new Document("$min", "$weather.humidity"))
+                        .append("maxHumidity", new Document("$max", "$weather.humidity"))
+                        .append("sumHumidity", new Document("$sum", "$weather.humidity"))
+                        .append("minWindSpeed", new Document("$min", "$weather.windSpeed"))
+                        .append("maxWindSpeed", new Document("$max", "$weather.windSpeed"))
+                        .append("sumWindSpeed", new Document("$sum", "$weather.windSpeed"))),
+                new Document("$group", new Document("_id", "$_id.group")
+                        .append("count", new Document("$sum", "$count"))
+                        .append("minTemperature", new Document("$min", "$minTemperature"))
+                        .append("maxTemperature", new Document("$max", "$maxTemperature"))
+                        .append("sumTemperature", new Document("$sum", "$sumTemperature"))
+                        .append("minHumidity", new Document("$min", "$minHumidity"))
+                        .append("maxHumidity", new Document("$max", "$maxHumidity"))
+                        .append("sumHumidity", new Document("$sum", "$sumHumidity"))
+                        .append("minWindSpeed", new Document("$min", "$minWindSpeed"))
+                        .append("maxWindSpeed", new Document("$max", "$maxWindSpeed"))
+                        .append("sumWindSpeed", new Document("$sum", "$sumWindSpeed"))
+                        .append("conditions", new Document("$push",
+                                new Document("condition", "$_id.condition").append("count", "$count")))),
+                new Document("$sort", new Document("_id", 1)));
+
+        return template.getCollection(template.getCollectionName(TravelAdvisory.class))
+                .flatMapMany(collection -> collection.aggregate(pipeline))
+                .map(this::toStats);
+    }
+
+    private AdvisoryStatsDto toStats(Document doc) {
+
+        long count = MongoUtil.number(doc, "count").longValue();
+
+        Map<String, Long> conditions = new TreeMap<>();
+        for (Document condition : doc.getList("conditions", Document.class)) {
+            conditions.put(condition.getString("condition"), MongoUtil.number(condition, "count").longValue());
+        }
+
+        return new AdvisoryStatsDto(
+                doc.get("_id") != null ? doc.get("_id").toString() : "unknown",
+                count,
+                MongoUtil.number(doc, "minTemperature").doubleValue(),
+                MongoUtil.number(doc, "maxTemperature").doubleValue(),
+                average(doc, "sumTemperature", count),
+                MongoUtil.number(doc, "minHumidity").doubleValue(),
+                MongoUtil.number(doc, "maxHumidity").doubleValue(),
+                average(doc, "sumHumidity", count),
+                MongoUtil.number(doc, "minWindSpeed").doubleValue(),
+                MongoUtil.number(doc, "maxWindSpeed").doubleValue(),
+                average(doc, "sumWindSpeed", count),
+                conditions);
+    }
+
+    private double average(Document doc, String sumKey, long count) {
+        return count == 0 ? 0 : MongoUtil.number(doc, sumKey).doubleValue() / count;
+    }
+
+    private Query project(Query query, Set<AdvisoryField> fields) {
+
+        Set<String> paths = AdvisoryField.projection(fields);
+
+        if (paths != null) {
+            paths.forEach(path -> query.fields().include(path));
+        }
+
+        return query;
+    }
+}
@@ -0,0 +1,183 @@
+package org.pyt.traveladvisor.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Process-wide AIMD limit on concurrent upstream calls. Every sync path
+// (single city, country, refresh-all, read-through) queues here, so the
+// total in flight tracks what the upstreams can take rather than
+// concurrency x number of refresh requests. The limit grows by one per
+// limit-sized window of fast successes and shrinks multiplicatively on
+// slow calls, timeouts, 429s and 5xx.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AdaptiveSyncLimiter {
+
+    private static final int WAITING = 0;
+    private static final int GRANTED = 1;
+    private static final int RUNNING = 2;
+    private static final int CANCELLED = 3;
+
+    private final MeterRegistry registry;
+
+    @Value("${app.sync.limiter.initial-limit:8}")
+    private int initialLimit;
+
+    @Value("${app.sync.limiter.min-limit:1}")
+    private int minLimit;
+
+    @Value("${app.sync.limiter.max-limit:64}")
+    private int maxLimit;
+
+    @Value("${app.sync.limiter.latency-target:PT1S}")
+    private Duration latencyTarget;
+
+    @Value("${app.sync.limiter.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+
+    // guarded by this
+    private double limit;
+    private int inFlight;
+
+    @PostConstruct
+    void init() {
+        limit = initialLimit;
+
+        Gauge.builder("advisory.sync.limit", this, l -> l.limit)
+                .description("Current adaptive limit on concurrent upstream calls")
+                .register(registry);
+        Gauge.builder("advisory.sync.queued", this, l -> l.queued())
+                .description("Upstream calls waiting for a permit")
+                .register(registry);
+    }
+
+    public <T> Mono<T> run(Mono<T> work) {
+        return acquire().flatMap(waiter -> {
+            // a cancel that won the race has already returned the permit
+            if (!waiter.state.compareAndSet(GRANTED, RUNNING)) {
+                return Mono.<T>empty();
+            }
+            long start = System.nanoTime();
+            return work
+                    .doOnSuccess(v -> onSample(System.nanoTime() - start, false))
+                    .doOnError(err -> onSample(System.nanoTime() - start, isOverload(err)))
+                    .doFinally(signal -> release());
+        });
+    }
+
+    // ---------------- PERMITS ----------------
+
+    // exactly one of the work (GRANTED -> RUNNING) and a cancel
+    // (GRANTED -> CANCELLED) owns a granted permit and releases it
+    private Mono<Waiter> acquire() {
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(sink);
+            sink.onCancel(() -> cancel(waiter));
+            synchronized (this) {
+                waiters.addLast(waiter);
+            }
+            drain();
+        });
+    }
+
+    private void cancel(Waiter waiter) {
+        if (waiter.state.compareAndSet(WAITING, CANCELLED)) {
+            synchronized (this) {
+                waiters.remove(waiter);
+            }
+        } else if (waiter.state.compareAndSet(GRANTED, CANCELLED)) {
+            release();
+        }
+    }
+
+    private void release() {
+        synchronized (this) {
+            inFlight--;
+        }
+        drain();
+    }
+
+    // permits are handed out under the lock, the work starts outside it
+    private void drain() {
+
+        List<Waiter> granted = new ArrayList<>();
+
+        synchronized (this) {
+            while (inFlight < (int) limit && !waiters.isEmpty()) {
+                Waiter waiter = waiters.pollFirst();
+                if (waiter.state.compareAndSet(WAITING, GRANTED)) {
+                    inFlight++;
+                    granted.add(waiter);
+                }
+            }
+        }
+
+        granted.forEach(waiter -> waiter.sink.success(waiter));
+    }
+
+    synchronized int queued() {
+        return waiters.size();
+    }
+
+    synchronized int inFlight() {
+        return inFlight;
+    }
+
+    // ---------------- AIMD ----------------
+
+    private void onSample(long nanos, boolean overload) {
+
+        boolean slow = nanos > latencyTarget.toNanos();
+
+        synchronized (this) {
+            double previous = limit;
+
+            if (overload || slow) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (inFlight >= (int) limit) {
+                // only grow while the limit is actually the bottleneck
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+
+            if ((int) previous != (int) limit) {
+                log.debug("[LIMITER] Sync limit {} -> {} (latency: {}ms, overload: {})",
+                        (int) previous, (int) limit, nanos / 1_000_000, overload);
+            }
+        }
+    }
+
+    private boolean isOverload(Throwable err) {
+
+        if (err instanceof WebClientResponseException e) {
+            return e.getStatusCode().is5xxServerError() || e.getStatusCode().value() == 429;
+        }
+
+        return err instanceof TimeoutException || err instanceof WebClientRequestException;
+    }
+
+    private record Waiter(MonoSink<Waiter> sink, AtomicInteger state) {
+        Waiter(MonoSink<Waiter> sink) {
+            this(sink, new AtomicInteger(WAITING));
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package org.pyt.traveladvisor.service;
+
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.json.JsonParseException;
+import org.pyt.traveladvisor.dto.AdvisoryEventDto;
+import org.pyt.traveladvisor.exception.ValidationException;
+import org.pyt.traveladvisor.mapper.AdvisoryMapper;
+import org.pyt.traveladvisor.model.TravelAdvisory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Tails the advisories collection with one change stream per node and fans it
+// out to every subscriber. Change streams need MongoDB running as a replica set.
+//
+// A subscriber that falls more than subscriber-buffer changes behind, or whose
+// replay cannot continue, gets one RESET event and the stream ends; it
+// reconnects with the id of the last change it processed and is replayed
+// from there.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AdvisoryChangeStream {
+
+    private static final String COLLECTION = "advisories";
+
+    private final ReactiveMongoTemplate template;
+    private final AdvisoryMapper mapper;
+
+    @Value("${app.stream.subscriber-buffer:256}")
+    private int subscriberBuffer;
+
+    private final AtomicReference<BsonValue> lastToken = new AtomicReference<>();
+
+    private Flux<Change> shared;
+
+    @PostConstruct
+    void init() {
+        // the cursor is opened for the first subscriber and closed after the last;
+        // after an error it resumes from the last token it delivered
+        shared = Flux.defer(() -> listen(lastToken.get()))
+                .doOnNext(change -> lastToken.set(change.token()))
+                .doOnError(err -> log.warn("[STREAM] Advisory change stream failed, resuming: {}", err.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .doOnCancel(() -> lastToken.set(null))
+                .publish()
+                .refCount();
+    }
+
+    public Flux<Change> subscribe(String cityKey, String country, String lastEventId) {
+
+        Flux<Change> source = lastEventId == null
+                ? shared
+                : resume(parseToken(lastEventId));
+
+        return source
+                .filter(change -> matches(change.event(), cityKey, country))
+                .onBackpressureBuffer(subscriberBuffer)
+                .onErrorResume(err -> {
+                    log.debug("[STREAM] Resetting subscriber: {}", err.getMessage());
+                    return Flux.just(Change.RESET);
+                });
+    }
+
+    // A resuming client joins the shared stream first and holds its changes
+    // while a dedicated cursor replays from the client's token. Once the
+    // replay reaches the first held change it hands over to the shared
+    // stream, skipping whatever the replay already delivered.
+    private Flux<Change> resume(BsonValue from) {
+        return Flux.defer(() -> {
+
+            Sinks.Many<Change> held = Sinks.many().unicast()
+                    .onBackpressureBuffer(Queues.<Change>get(subscriberBuffer).get());
+            AtomicReference<String> firstHeld = new AtomicReference<>();
+            AtomicReference<String> replayed = new AtomicReference<>("");
+
+            Disposable joined = shared.subscribe(change -> {
+                firstHeld.compareAndSet(null, position(change));
+                if (held.tryEmitNext(change).isFailure()) {
+                    held.tryEmitError(Exceptions.failWithOverflow());
+                }
+            });
+
+            Flux<Change> replay = listen(from)
+                    .takeWhile(change -> firstHeld.get() == null || position(change).compareTo(firstHeld.get()) < 0)
+                    .doOnNext(change -> replayed.set(position(change)));
+
+            Flux<Change> live = held.asFlux()
+                    .filter(change -> position(change).compareTo(replayed.get()) > 0);
+
+            return Flux.concat(replay, live)
+                    .doFinally(signal -> joined.dispose());
+        });
+    }
+
+    // resume tokens of one deployment sort by cluster time on their _data
+    private static String position(Change change) {
+        return change.token().asDocument().getString("_data").getValue();
+    }
+
+    private Flux<Change> listen(BsonValue resumeToken) {
+
+        ChangeStreamOptions.ChangeStreamOptionsBuilder options = ChangeStreamOptions.builder()
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP);
+
+        if (resumeToken != null) {
+            options.resumeAfter(resumeToken);
+        }
+
+        return template.changeStream(COLLECTION, options.build(), TravelAdvisory.class)
+                .mapNotNull(this::toChange);
+    }
+
+    private Change toChange(ChangeStreamEvent<TravelAdvisory> event) {
+
+        OperationType operation = event.getOperationType();
+        BsonValue token = event.getResumeToken();
+
+        if (operation == OperationType.DELETE && event.getRaw() != null) {
+            String cityKey = event.getRaw().getDocumentKey().getString("_id").getValue();
+            return new Change(token, new AdvisoryEventDto(AdvisoryEventDto.ChangeType.DELETE, cityKey, null));
+        }
+
+        TravelAdvisory body = event.getBody();
+        if (body == null) {
+            return null; // drop, invalidate and other collection-level events
+        }
+
+        return new Change(token, new AdvisoryEventDto(
+                AdvisoryEventDto.ChangeType.UPSERT, body.getCityKey(), mapper.toDto(body)));
+    }
+
+    private boolean matches(AdvisoryEventDto event, String cityKey, String country) {
+
+        if (cityKey != null && !cityKey.equals(event.getCityKey())) {
+            return false;
+        }
+
+        // deletes carry no country, so country subscribers receive every delete
+        if (country != null && event.getAdvisory() != null) {
+            return country.equalsIgnoreCase(event.getAdvisory().getCountry().getName());
+        }
+
+        return true;
+    }
+
+    private BsonValue parseToken(String lastEventId) {
+        try {
+            return BsonDocument.parse(lastEventId);
+        } catch (JsonParseException e) {
+            throw new ValidationException("Invalid Last-Event-ID");
+        }
+    }
+
+    public record Change(BsonValue token, AdvisoryEventDto event) {
+
+        // tells the client it missed changes; carries no id, so a reconnect
+        // resumes after the last change it did receive
+        public static final Change RESET =
+                new Change(null, new AdvisoryEventDto(AdvisoryEventDto.ChangeType.RESET, null, null));
+
+        public String id() {
+            return token == null ? null : token.asDocument().toJson();
+        }
+    }
+}
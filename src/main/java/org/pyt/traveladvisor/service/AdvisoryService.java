@@ -2,30 +2,61 @@ package org.pyt.traveladvisor.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.pyt.traveladvisor.admission.AdmissionBudgets;
+import org.pyt.traveladvisor.cache.AdvisoryCache;
+import org.pyt.traveladvisor.cache.CityAliasRegistry;
+import org.pyt.traveladvisor.cache.CityPrefixIndex;
+import org.pyt.traveladvisor.cache.CountryCache;
+import org.pyt.traveladvisor.cache.InvalidationBus;
+import org.pyt.traveladvisor.cache.ReadStats;
+import org.pyt.traveladvisor.cache.UnknownCityCache;
 import org.pyt.traveladvisor.client.CityClient;
 import org.pyt.traveladvisor.client.CountryClient;
 import org.pyt.traveladvisor.client.OpenWeatherClient;
 import org.pyt.traveladvisor.config.ExternalApiProperties;
+import org.pyt.traveladvisor.dto.AdvisoryField;
+import org.pyt.traveladvisor.dto.AdvisoryStatsDto;
 import org.pyt.traveladvisor.dto.AuditType;
 import org.pyt.traveladvisor.dto.CountryApiResponseDto;
 import org.pyt.traveladvisor.dto.WeatherApiResponseDto;
+import org.pyt.traveladvisor.dto.WeatherHistoryBucketDto;
+import org.pyt.traveladvisor.exception.ServiceBusyException;
+import org.pyt.traveladvisor.metrics.AdvisoryMetrics;
+import org.pyt.traveladvisor.exception.ValidationException;
+import org.pyt.traveladvisor.metrics.RequestTiming;
+import org.pyt.traveladvisor.model.AdvisoryInvalidation;
+import org.pyt.traveladvisor.model.AdvisoryTombstone;
 import org.pyt.traveladvisor.model.CountryInfo;
 import org.pyt.traveladvisor.model.TravelAdvisory;
 import org.pyt.traveladvisor.model.WeatherInfo;
+import org.pyt.traveladvisor.repository.AdvisoryTombstoneRepository;
 import org.pyt.traveladvisor.repository.TravelAdvisoryRepository;
 import org.pyt.traveladvisor.util.TimeUtil;
 import org.pyt.traveladvisor.validation.CityValidator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.util.function.Tuple2;
 import reactor.util.function.Tuples;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -34,11 +65,30 @@ import java.util.stream.Collectors;
 public class AdvisoryService {
 
     private final TravelAdvisoryRepository repo;
+    private final AdvisoryTombstoneRepository tombstones;
     private final OpenWeatherClient weatherClient;
     private final CountryClient countryClient;
     private final CityClient cityClient;
     private final CityValidator validator;
     private final ExternalApiProperties props;
+    private final AdvisoryMetrics metrics;
+    private final RefreshLeaseManager leases;
+    private final AdvisoryCache cache;
+    private final InvalidationBus invalidations;
+    private final UnknownCityCache unknownCities;
+    private final WeatherHistoryService history;
+    private final CityPrefixIndex prefixIndex;
+    private final CityAliasRegistry aliases;
+    private final AdaptiveSyncLimiter limiter;
+    private final CountryCache countries;
+    private final ReadStats readStats;
+    private final AdmissionBudgets budgets;
+
+    @Value("${app.changes.clock-skew:PT5S}")
+    private Duration changesClockSkew;
+
+    // one upstream sync per city, shared by all concurrent read-through misses
+    private final Map<String, Mono<TravelAdvisory>> readThroughSyncs = new ConcurrentHashMap<>();
 
     // ---------------- FETCH ----------------
 
@@ -46,8 +96,8 @@ public class AdvisoryService {
 
         if (city != null) {
             log.info("[SERVICE] Fetching advisory from database for city: {}", city);
-            String key = normalize(city);
-            return repo.findById(key)
+            return keyOf(city)
+                    .flatMap(this::findCached)
                     .flux()
                     .doOnNext(advisory -> log.debug("[SERVICE] Found advisory for city: {}", city))
                     .doOnComplete(() -> log.debug("[SERVICE] Completed fetching for city: {}", city));
@@ -55,16 +105,125 @@ public class AdvisoryService {
 
         if (country != null) {
             log.info("[SERVICE] Fetching advisories from database for country: {}", country);
-            return repo.findAll()
-                    .filter(a ->
-                            a.getCountry().getName()
-                                    .equalsIgnoreCase(country))
+            return RequestTiming.time("mongo", repo.findByCountryName(country))
                     .doOnNext(advisory -> log.debug("[SERVICE] Found advisory for city: {} in country: {}", advisory.getCity(), country))
                     .doOnComplete(() -> log.info("[SERVICE] Completed fetching advisories for country: {}", country));
         }
 
         log.info("[SERVICE] Fetching all advisories from database");
-        return repo.findAll();
+        return RequestTiming.time("mongo", repo.findAll());
+    }
+
+    // ---------------- READ-THROUGH ----------------
+
+    public Flux<TravelAdvisory> fetchOrSync(String city) {
+
+        log.info("[SERVICE] Fetching advisory with read-through for city: {}", city);
+
+        return keyOf(city)
+                .flatMap(key -> findCached(key)
+                        .switchIfEmpty(Mono.defer(() -> syncOnMiss(key, city.trim()))))
+                .flux();
+    }
+
+    private Mono<TravelAdvisory> syncOnMiss(String key, String city) {
+
+        if (unknownCities.isUnknown(key)) {
+            log.debug("[SERVICE] Skipping read-through for unknown city: {}", city);
+            return Mono.empty();
+        }
+
+        // the GET was admitted as a read, but the sync costs as much as a refresh
+        return readThroughSyncs.computeIfAbsent(key, k -> admitted(budgets.writes(), syncCityWithAudit(city))
+                .map(Tuple2::getT1)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> {
+                    log.info("[SERVICE] OpenWeather does not know city: {}", city);
+                    unknownCities.markUnknown(k);
+                    return Mono.empty();
+                })
+                .doFinally(signal -> readThroughSyncs.remove(k))
+                .cache());
+    }
+
+    private <T> Mono<T> admitted(AdmissionBudgets.Budget budget, Mono<T> work) {
+        return Mono.defer(() -> {
+            if (!budget.tryAcquire()) {
+                return Mono.error(new ServiceBusyException(budget.retryAfter()));
+            }
+            return work.doFinally(signal -> budget.release());
+        });
+    }
+
+    private Mono<TravelAdvisory> findCached(String key) {
+
+        TravelAdvisory cached = cache.get(key);
+
+        if (cached != null) {
+            readStats.record(key);
+            return Mono.just(cached);
+        }
+
+        long readStartedAt = System.nanoTime();
+        return RequestTiming.time("mongo", repo.findById(key))
+                .doOnNext(advisory -> {
+                    // only stored cities are worth warming, misses would crowd them out
+                    readStats.record(key);
+                    cache.put(advisory, readStartedAt);
+                });
+    }
+
+    // results are keyed by canonical cityKey, see cityKey(String)
+    public Mono<Map<String, TravelAdvisory>> fetchMany(List<String> cities) {
+
+        Set<String> names = new LinkedHashSet<>();
+        for (String city : cities) {
+            names.add(normalize(city));
+        }
+
+        return Flux.fromIterable(names)
+                .concatMap(aliases::resolve)
+                .collect(Collectors.toCollection(LinkedHashSet<String>::new))
+                .flatMap(this::fetchManyByKey);
+    }
+
+    // cache hits first, then one $in query for the rest
+    private Mono<Map<String, TravelAdvisory>> fetchManyByKey(Set<String> keys) {
+
+        log.info("[SERVICE] Fetching advisories from database for {} cities", keys.size());
+
+        Map<String, TravelAdvisory> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+
+        for (String key : keys) {
+            TravelAdvisory cached = cache.get(key);
+            if (cached != null) {
+                readStats.record(key);
+                found.put(key, cached);
+            } else {
+                missing.add(key);
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return Mono.just(found);
+        }
+
+        long readStartedAt = System.nanoTime();
+        return RequestTiming.time("mongo", repo.findAllById(missing))
+                .doOnNext(advisory -> {
+                    readStats.record(advisory.getCityKey());
+                    cache.put(advisory, readStartedAt);
+                })
+                .collect(() -> new HashMap<>(found), (map, advisory) -> map.put(advisory.getCityKey(), advisory));
+    }
+
+    public Flux<TravelAdvisory> fetchPage(String after, int limit, Set<AdvisoryField> fields) {
+
+        // every key sorts after "", so the first page is the same range query
+        String from = after == null ? "" : after;
+        log.info("[SERVICE] Fetching advisories page after: '{}', limit: {}", from, limit);
+
+        return RequestTiming.time("mongo", repo.findPage(from, limit, fields));
     }
 
     // ---------------- REFRESH ----------------
@@ -104,10 +263,8 @@ public class AdvisoryService {
 
         int topN = props.getCities().getTopN();
 
-        Mono<Set<String>> storedCitiesMono = fetch(null, normalizedCountry)
-                .map(TravelAdvisory::getCity)
-                .map(this::normalize)
-                .collect(Collectors.toSet())
+        Mono<Map<String, TravelAdvisory>> storedCitiesMono = fetch(null, normalizedCountry)
+                .collectMap(TravelAdvisory::getCityKey)
                 .doOnNext(cities -> log.info("[SERVICE] Found {} stored cities in database for country: {}", cities.size(), normalizedCountry));
 
         Mono<List<String>> topCitiesMono = getTopCitiesForCountry(normalizedCountry, topN)
@@ -125,19 +282,16 @@ public class AdvisoryService {
     private Flux<Tuple2<TravelAdvisory, AuditType>> refreshAllCities(int concurrency) {
         log.info("[SERVICE] Refreshing all advisories from database");
 
-        return repo.findAll()
-                .map(TravelAdvisory::getCity)
-                .map(this::normalize)
-                .distinct()
-                .doOnNext(city -> log.debug("[SERVICE] Syncing city: {}", city))
-                .flatMap(this::syncCityWithAudit, concurrency)
-                .doOnComplete(() -> log.info("[SERVICE] Completed refreshing all advisories"))
-                .onErrorContinue((err, obj) ->
-                        log.warn("[SERVICE] Failed syncing city: {}, error: {}", obj, err.getMessage()));
+        return RequestTiming.time("mongo", repo.findAll())
+                // with leases enabled, other nodes refresh the remaining partitions
+                .filter(advisory -> leases.owns(advisory.getCityKey()))
+                .doOnNext(advisory -> log.debug("[SERVICE] Syncing city: {}", advisory.getCity()))
+                .flatMap(advisory -> metrics.trackInFlight(AdvisoryMetrics.FLOW_ALL, syncStoredWithAuditSafely(advisory)), concurrency)
+                .doOnComplete(() -> log.info("[SERVICE] Completed refreshing all advisories"));
     }
 
     private Mono<List<String>> getTopCitiesForCountry(String countryName, int topN) {
-        return countryClient.getCountryByName(countryName)
+        return limiter.run(countryClient.getCountryByName(countryName))
                 .flatMap(dto -> fetchTopCitiesWithFallback(dto, topN))
                 .onErrorResume(err -> {
                     log.warn("Failed to fetch top cities for {}: {}", countryName, err.getMessage());
@@ -156,7 +310,7 @@ public class AdvisoryService {
             return Mono.just(fallback);
         }
 
-        return cityClient.getTopCitiesByCountryCode(code, topN)
+        return limiter.run(cityClient.getTopCitiesByCountryCode(code, topN))
                 .map(list -> list.isEmpty() ? fallback : list);
     }
 
@@ -168,19 +322,27 @@ public class AdvisoryService {
                 });
     }
 
+    private Mono<Tuple2<TravelAdvisory, AuditType>> syncStoredWithAuditSafely(TravelAdvisory stored) {
+        return syncStoredWithAudit(stored)
+                .onErrorResume(err -> {
+                    log.warn("Failed syncing city {}: {}", stored.getCity(), err.getMessage());
+                    return Mono.empty();
+                });
+    }
+
     // ---------------- DELETE ----------------
 
     public Mono<List<String>> delete(String city, String country) {
 
         if (city != null) {
             log.info("[SERVICE] Deleting advisory for city: {}", city);
-            String key = normalize(city);
-            return repo.findById(key)
-                    .doOnNext(advisory -> log.info("[SERVICE] Found advisory for city: {} in country: {}", city, advisory.getCountry().getName()))
-                    .switchIfEmpty(Mono.error(new IllegalArgumentException("No data found for city: " + city)))
-                    .flatMap(advisory -> repo.deleteById(key)
-                            .doOnSuccess(v -> log.info("[SERVICE] Successfully deleted advisory for city: {}", city))
-                            .then(Mono.just(List.of(city))));
+            return keyOf(city)
+                    .flatMap(key -> RequestTiming.time("mongo", repo.findById(key))
+                            .doOnNext(advisory -> log.info("[SERVICE] Found advisory for city: {} in country: {}", city, advisory.getCountry().getName()))
+                            .switchIfEmpty(Mono.error(new IllegalArgumentException("No data found for city: " + city)))
+                            .flatMap(advisory -> deleteWithTombstone(advisory)
+                                    .doOnSuccess(v -> log.info("[SERVICE] Successfully deleted advisory for city: {}", city))
+                                    .then(Mono.just(List.of(city)))));
         }
 
         if (country != null) {
@@ -195,9 +357,8 @@ public class AdvisoryService {
                         }
                         log.info("[SERVICE] Found {} advisories for country: {}, cities: {}", cities.size(), country, cities);
                         return fetch(null, country)
-                                .map(TravelAdvisory::getCityKey)
-                                .doOnNext(cityKey -> log.debug("[SERVICE] Deleting city key: {}", cityKey))
-                                .flatMap(repo::deleteById)
+                                .doOnNext(advisory -> log.debug("[SERVICE] Deleting city key: {}", advisory.getCityKey()))
+                                .flatMap(this::deleteWithTombstone)
                                 .then(Mono.just(cities))
                                 .doOnSuccess(deletedCities -> log.info("[SERVICE] Successfully deleted {} advisories for country: {}", deletedCities.size(), country));
                     });
@@ -206,60 +367,211 @@ public class AdvisoryService {
         return Mono.error(new IllegalArgumentException("Either city or country must be specified"));
     }
 
+    // the tombstone lets change-feed consumers see the delete
+    private Mono<Void> deleteWithTombstone(TravelAdvisory advisory) {
+        AdvisoryTombstone tombstone =
+                new AdvisoryTombstone(advisory.getCityKey(), advisory.getCity(), Instant.now());
+
+        return RequestTiming.time("mongo", repo.deleteById(advisory.getCityKey())
+                        .then(tombstones.save(tombstone)))
+                .then(invalidations.publish(advisory.getCityKey(), advisory.getCity(), AdvisoryInvalidation.Type.DELETED));
+    }
+
+    // ---------------- CHANGES ----------------
+
+    // Changes in (time, cityKey) order, at most limit per page. A poll starts
+    // from ?since= minus the allowed clock skew, because syncedAt is stamped
+    // by the syncing node before its write lands; consumers drop repeats by
+    // (cityKey, syncedAt). Further pages continue exactly after the cursor.
+    public Mono<ChangePage> changes(String since, String cursor, int limit) {
+
+        if ((since == null) == (cursor == null)) {
+            throw new ValidationException("Exactly one of since or cursor is required");
+        }
+
+        ChangePosition from = cursor != null
+                ? ChangePosition.decode(cursor)
+                : new ChangePosition(TimeUtil.parseInstant(since, "since"), "");
+        Instant after = cursor != null ? from.at() : from.at().minus(changesClockSkew);
+
+        log.info("[SERVICE] Fetching advisory changes after: {} / '{}', limit: {}", after, from.cityKey(), limit);
+
+        Mono<List<TravelAdvisory>> upserts = RequestTiming.time("mongo",
+                repo.findChangedAfter(after, from.cityKey(), PageRequest.ofSize(limit + 1))).collectList();
+
+        Mono<List<AdvisoryTombstone>> deletes = RequestTiming.time("mongo",
+                tombstones.findDeletedAfter(after, from.cityKey(), PageRequest.ofSize(limit + 1))).collectList();
+
+        return Mono.zip(upserts, deletes)
+                .map(tuple -> page(tuple.getT1(), tuple.getT2(), from.at(), limit));
+    }
+
+    // merges both ordered lists and cuts them at limit
+    private ChangePage page(List<TravelAdvisory> upserts, List<AdvisoryTombstone> deletes, Instant from, int limit) {
+
+        List<TravelAdvisory> pageUpserts = new ArrayList<>();
+        List<AdvisoryTombstone> pageDeletes = new ArrayList<>();
+        ChangePosition last = null;
+        int u = 0;
+        int d = 0;
+
+        while (pageUpserts.size() + pageDeletes.size() < limit && (u < upserts.size() || d < deletes.size())) {
+
+            ChangePosition upsert = u < upserts.size()
+                    ? new ChangePosition(upserts.get(u).getSyncedAt(), upserts.get(u).getCityKey()) : null;
+            ChangePosition delete = d < deletes.size()
+                    ? new ChangePosition(deletes.get(d).getDeletedAt(), deletes.get(d).getCityKey()) : null;
+
+            if (delete == null || (upsert != null && upsert.compareTo(delete) <= 0)) {
+                pageUpserts.add(upserts.get(u++));
+                last = upsert;
+            } else {
+                pageDeletes.add(deletes.get(d++));
+                last = delete;
+            }
+        }
+
+        boolean more = u < upserts.size() || d < deletes.size();
+        Instant highWaterMark = last != null && last.at().isAfter(from) ? last.at() : from;
+
+        return new ChangePage(
+                pageUpserts,
+                dropRecreated(pageDeletes, pageUpserts),
+                more ? last.encode() : null,
+                highWaterMark);
+    }
+    // a city deleted and synced again within the window is only an upsert
+    private List<AdvisoryTombstone> dropRecreated(List<AdvisoryTombstone> deletes, List<TravelAdvisory> upserts) {
+        Set<String> upserted = upserts.stream()
+                .map(TravelAdvisory::getCityKey)
+                .collect(Collectors.toSet());
+
+        return deletes.stream()
+                .filter(t -> !upserted.contains(t.getCityKey()))
+                .toList();
+    }
+
     // ---------------- SYNC SINGLE CITY ----------------
 
     public Mono<TravelAdvisory> syncCity(String city) {
+        return syncCityWithAudit(city).map(Tuple2::getT1);
+    }
 
-        String key = city.trim().toLowerCase();
-        log.info("[SERVICE] Syncing city: {}", city);
+    // per-city logs are DEBUG-only: refresh-all runs this for every stored city;
+    // every upstream call takes a permit from the process-wide limiter
+    private Mono<Tuple2<TravelAdvisory, AuditType>> sync(String name, String key, String city) {
 
-        return weatherClient.fetchWeather(city)
-                .doOnNext(w ->
-                        log.info("[SERVICE] Weather data received for city: {}, temp: {}°C", city, w.getMain().getTemp()))
+        log.debug("[SERVICE] Syncing city: {}", city);
+
+        return limiter.run(key.equals(name)
+                        ? weatherClient.fetchWeather(city)
+                        : weatherClient.fetchWeatherById(key))
+                .doOnNext(w -> {
+                    if (log.isDebugEnabled()) {
+                        log.debug("[SERVICE] Weather data received for city: {}, temp: {}°C", city, w.getMain().getTemp());
+                    }
+                })
                 .flatMap(weather -> {
 
                     String code = weather.getSys().getCountry();
-                    log.info("[SERVICE] Country code extracted for city: {}, code: {}", city, code);
+                    log.debug("[SERVICE] Country code extracted for city: {}, code: {}", city, code);
 
-                    return countryClient.getCountryByCode(code)
+                    return countryByCode(code)
                             .map(country -> {
-                                log.info("[SERVICE] Country data received for code: {}, country: {}", code, country.getName().getCommon());
-                                return buildAdvisory(city, key, weather, country);
+                                if (log.isDebugEnabled()) {
+                                    log.debug("[SERVICE] Country data received for code: {}, country: {}", code, country.getName().getCommon());
+                                }
+                                return buildAdvisory(canonicalName(city, weather), canonicalKey(name, weather), weather, country);
                             });
                 })
                 .doOnNext(a -> {
-                    log.info("[SERVICE] Built advisory entity for city: {}", city);
-                    log.debug("[SERVICE] Advisory details - city: {}, temp: {}°C, country: {}", a.getCity(), a.getWeather().getTemperature(), a.getCountry().getName());
+                    if (log.isDebugEnabled()) {
+                        log.debug("[SERVICE] Advisory details - city: {}, temp: {}°C, country: {}", a.getCity(), a.getWeather().getTemperature(), a.getCountry().getName());
+                    }
                 })
-                .flatMap(advisory -> {
-                    log.info("[SERVICE] Saving advisory to database for city: {}", city);
-                    return repo.save(advisory)
-                            .doOnNext(saved -> log.info("[SERVICE] Successfully saved advisory for city: {}", city));
-                });
+                .flatMap(advisory -> existed(key, advisory.getCityKey())
+                        .flatMap(exists -> RequestTiming.time("mongo", repo.save(advisory))
+                                .doOnNext(saved -> log.debug("[SERVICE] Successfully saved advisory for city: {}", city))
+                                .map(saved -> Tuples.of(saved, exists ? AuditType.UPDATED : AuditType.CREATED))))
+                .doOnNext(tuple -> unknownCities.forget(name))
+                .flatMap(tuple -> recordAliases(name, tuple.getT1()).thenReturn(tuple))
+                .flatMap(tuple -> history.record(tuple.getT1()).thenReturn(tuple))
+                .flatMap(tuple -> invalidations.publish(tuple.getT1().getCityKey(), tuple.getT1().getCity(), AdvisoryInvalidation.Type.SYNCED)
+                        .thenReturn(tuple));
+    }
+
+    // a new alias of a stored city, or a legacy document kept under the
+    // requested name, is an update of that city rather than a new one
+    private Mono<Boolean> existed(String key, String canonicalKey) {
+        return Flux.just(canonicalKey, key)
+                .distinct()
+                .concatMap(k -> RequestTiming.time("mongo", repo.existsById(k)))
+                .any(Boolean::booleanValue);
+    }
+
+    private Mono<CountryApiResponseDto> countryByCode(String code) {
+
+        CountryApiResponseDto cached = countries.get(code);
+
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+
+        return limiter.run(countryClient.getCountryByCode(code))
+                .doOnNext(countries::put);
+    }
+
+    // ---------------- ALIASES ----------------
+
+    // OpenWeather resolves "NYC", "New York" and "new york city" to one id,
+    // which becomes the document key
+    private String canonicalKey(String name, WeatherApiResponseDto weather) {
+        return weather.getId() > 0 ? String.valueOf(weather.getId()) : name;
+    }
+
+    private String canonicalName(String city, WeatherApiResponseDto weather) {
+        return weather.getName() != null && !weather.getName().isBlank() ? weather.getName() : city.trim();
+    }
+
+    // the first time a name maps to the canonical key, the document stored
+    // under that name before aliases existed is retired
+    private Mono<Void> recordAliases(String name, TravelAdvisory saved) {
+
+        String key = saved.getCityKey();
+
+        return Flux.just(name, saved.getCity().toLowerCase())
+                .distinct()
+                .concatMap(alias -> aliases.record(alias, key)
+                        .filter(isNew -> isNew)
+                        .flatMap(isNew -> RequestTiming.time("mongo", repo.findById(alias)))
+                        .doOnNext(legacy -> log.info("[SERVICE] Retiring legacy advisory: {} in favour of: {}", alias, key))
+                        .flatMap(this::deleteWithTombstone))
+                .then();
     }
 
     // ---------------- SYNC WITH AUDIT ----------------
 
     public Mono<Tuple2<TravelAdvisory, AuditType>> syncCityWithAudit(String city) {
 
-        String key = city.trim().toLowerCase();
-        log.info("[SERVICE] Syncing city with audit: {}", city);
+        String name = city.trim().toLowerCase();
+        log.debug("[SERVICE] Syncing city with audit: {}", city);
 
-        return repo.existsById(key)
-                .doOnNext(exists -> log.info("[SERVICE] City exists in database: {}, exists: {}", city, exists))
-                .flatMap(exists ->
-                        syncCity(city)
-                                .map(saved -> {
-                                    AuditType type =
-                                            exists ? AuditType.UPDATED
-                                                    : AuditType.CREATED;
+        return aliases.resolve(name)
+                .flatMap(key -> sync(name, key, city.trim()))
+                .doOnNext(tuple -> audit(city, tuple.getT2()));
+    }
 
-                                    log.info("[SERVICE] Audit - city: {}, auditType: {}, isnew: {}",
-                                            city, type, !exists);
+    // stored names come from OpenWeather ("Saint-Étienne", "Washington, D.C."),
+    // so refreshes go by the stored key and skip input validation
+    private Mono<Tuple2<TravelAdvisory, AuditType>> syncStoredWithAudit(TravelAdvisory stored) {
 
-                                    return Tuples.of(saved, type);
-                                })
-                );
+        return sync(stored.getCity().toLowerCase(), stored.getCityKey(), stored.getCity())
+                .doOnNext(tuple -> audit(stored.getCity(), tuple.getT2()));
+    }
+
+    private void audit(String city, AuditType type) {
+        log.debug("[SERVICE] Audit - city: {}, auditType: {}, isnew: {}", city, type, type == AuditType.CREATED);
+        metrics.recordAudit(type);
     }
 
     // ---------------- BUILD ENTITY ----------------
@@ -299,6 +611,11 @@ public class AdvisoryService {
                 country.getRegion()
         ));
 
+        if (weather.getCoord() != null) {
+            // GeoJSON order is (longitude, latitude)
+            adv.setLocation(new GeoJsonPoint(weather.getCoord().getLon(), weather.getCoord().getLat()));
+        }
+
         adv.setSyncedAt(Instant.now());
         adv.setCreatedAt(Instant.now());
 
@@ -307,41 +624,144 @@ public class AdvisoryService {
 
     // ---------------- SEARCH ----------------
 
-    public Flux<TravelAdvisory> searchByTemp(double min, double max) {
+    public Flux<TravelAdvisory> searchByTemp(double min, double max, Set<AdvisoryField> fields) {
+
+        return RequestTiming.time("mongo", repo.findByTemperatureBetween(min, max, fields));
+    }
+
+    // ---------------- NEARBY ----------------
+
+    public Flux<TravelAdvisory> findNearby(double lat, double lon, double radiusKm, int limit, Set<AdvisoryField> fields) {
+
+        // written as "not inside" so NaN, which fails every comparison, is rejected too
+        if (!(lat >= -90 && lat <= 90 && lon >= -180 && lon <= 180)) {
+            throw new ValidationException("lat must be within [-90, 90] and lon within [-180, 180]");
+        }
+
+        if (!(radiusKm > 0 && radiusKm <= 20_000)) {
+            throw new ValidationException("radiusKm must be greater than 0 and at most 20000");
+        }
+
+        log.info("[SERVICE] Fetching advisories within {}km of ({}, {})", radiusKm, lat, lon);
 
-        return repo.findAll()
-                .filter(a ->
-                        a.getWeather().getTemperature() >= min &&
-                                a.getWeather().getTemperature() <= max);
+        return RequestTiming.time("mongo", repo.findNear(lat, lon, radiusKm * 1000, limit, fields));
+    }
+
+    // ---------------- STATS ----------------
+
+    public Flux<AdvisoryStatsDto> stats(String groupBy) {
+
+        String path = switch (groupBy == null ? "country" : groupBy.trim().toLowerCase()) {
+            case "country" -> "country.name";
+            case "region" -> "country.region";
+            default -> throw new ValidationException("groupBy must be 'country' or 'region'");
+        };
+
+        log.info("[SERVICE] Aggregating advisory stats by {}", path);
+
+        return RequestTiming.time("mongo", repo.aggregateStats(path));
     }
 
     // ---------------- HELPER ----------------
 
+    public record ChangePage(
+            List<TravelAdvisory> upserts,
+            List<AdvisoryTombstone> deletes,
+            String nextCursor, // null on the last page
+            Instant highWaterMark) {
+    }
+
+    // position in the change feed; cursors are its opaque encoding
+    record ChangePosition(Instant at, String cityKey) implements Comparable<ChangePosition> {
+
+        @Override
+        public int compareTo(ChangePosition other) {
+            int byTime = at.compareTo(other.at);
+            return byTime != 0 ? byTime : cityKey.compareTo(other.cityKey);
+        }
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((at + "|" + cityKey).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static ChangePosition decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int split = raw.indexOf('|');
+                return new ChangePosition(Instant.parse(raw.substring(0, split)), raw.substring(split + 1));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+                throw new ValidationException("Invalid cursor");
+            }
+        }
+    }
+
     private String normalize(String city) {
 
         validator.validate(city);
         return city.trim().toLowerCase();
     }
 
+    // ---------------- WEATHER HISTORY ----------------
+
+    public Flux<WeatherHistoryBucketDto> weatherHistory(String city, String interval, String from, String to) {
+        return keyOf(city)
+                .flatMapMany(key -> history.history(key, interval, from, to));
+    }
+
+    // ---------------- SUGGEST ----------------
+
+    public List<String> suggest(String prefix, int limit) {
+
+        if (prefix == null || prefix.isBlank()) {
+            throw new ValidationException("prefix must not be blank");
+        }
+
+        return prefixIndex.suggest(prefix.trim().toLowerCase(), limit);
+    }
+
+    // canonical key for a user-supplied name, from the in-memory alias map
+    public String cityKey(String city) {
+        return aliases.cached(normalize(city));
+    }
+
+    private Mono<String> normalizeTimed(String city) {
+        return RequestTiming.time("validation", Mono.fromCallable(() -> normalize(city)));
+    }
+
+    private Mono<String> keyOf(String city) {
+        return normalizeTimed(city).flatMap(aliases::resolve);
+    }
+
     private List<String> safeCapitals(List<String> capitals) {
         return capitals == null ? Collections.emptyList() : capitals;
     }
 
     private Flux<Tuple2<TravelAdvisory, AuditType>> buildUnionAndSync(
-            Tuple2<Set<String>, List<String>> tuple,
+            Tuple2<Map<String, TravelAdvisory>, List<String>> tuple,
             int concurrency) {
 
-        Set<String> union = new HashSet<>(tuple.getT1());
+        Map<String, TravelAdvisory> stored = tuple.getT1();
 
+        Set<String> storedNames = stored.values().stream()
+                .map(advisory -> advisory.getCity().toLowerCase())
+                .collect(Collectors.toSet());
+
+        // top cities already stored (by name or alias) are refreshed by key
+        Set<String> extra = new HashSet<>();
         tuple.getT2().stream()
                 .filter(s -> s != null && !s.isBlank())
                 .map(String::trim)
                 .map(String::toLowerCase)
-                .forEach(union::add);
+                .filter(name -> !storedNames.contains(name) && !stored.containsKey(aliases.cached(name)))
+                .forEach(extra::add);
+
+        log.info("Syncing {} cities for country", stored.size() + extra.size());
 
-        log.info("Syncing {} cities for country", union.size());
+        Flux<Mono<Tuple2<TravelAdvisory, AuditType>>> syncs = Flux.concat(
+                Flux.fromIterable(stored.values()).map(this::syncStoredWithAuditSafely),
+                Flux.fromIterable(extra).map(this::syncCityWithAuditSafely));
 
-        return Flux.fromIterable(union)
-                .flatMap(city -> syncCityWithAuditSafely(city), concurrency);
+        return syncs.flatMap(sync -> metrics.trackInFlight(AdvisoryMetrics.FLOW_COUNTRY, sync), concurrency);
     }
 }
@@ -0,0 +1,250 @@
+package org.pyt.traveladvisor.service;
+
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.WriteModel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonParseException;
+import org.bson.json.JsonWriterSettings;
+import org.pyt.traveladvisor.cache.InvalidationBus;
+import org.pyt.traveladvisor.exception.ValidationException;
+import org.pyt.traveladvisor.model.AdvisoryInvalidation;
+import org.pyt.traveladvisor.model.TravelAdvisory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Bulk export/import of the raw advisories collection as NDJSON, one
+// canonical Extended JSON document per line so types (dates, GeoJSON,
+// longs) survive the round trip. Both directions stream: memory stays
+// at one batch regardless of collection size.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AdvisoryTransferService {
+
+    private static final JsonWriterSettings JSON = JsonWriterSettings.builder()
+            .outputMode(JsonMode.EXTENDED)
+            .build();
+
+    private final ReactiveMongoTemplate template;
+    private final InvalidationBus invalidations;
+
+    @Value("${app.transfer.batch-size:1000}")
+    private int batchSize;
+
+    // ---------------- EXPORT ----------------
+
+    public Flux<DataBuffer> exportGzip(DataBufferFactory buffers) {
+
+        log.info("[TRANSFER] Exporting advisories");
+
+        return Flux.using(
+                GzipChunks::new,
+                gzip -> template.getCollection(collection())
+                        .flatMapMany(c -> c.find().batchSize(batchSize))
+                        .map(doc -> doc.toJson(JSON))
+                        .buffer(batchSize)
+                        .map(lines -> buffers.wrap(gzip.write(lines)))
+                        .concatWith(Mono.fromCallable(() -> buffers.wrap(gzip.finish()))),
+                GzipChunks::close);
+    }
+
+    // ---------------- IMPORT ----------------
+
+    // accepts plain or gzip NDJSON, detected from the gzip magic bytes;
+    // batches are committed as they go, so a bad line reports how many
+    // advisories were already imported before it
+    public Mono<Long> importNdjson(Flux<DataBuffer> body) {
+
+        log.info("[TRANSFER] Importing advisories");
+
+        AtomicLong imported = new AtomicLong();
+
+        return Flux.using(
+                        () -> reader(DataBufferUtils.subscriberInputStream(body, 16)),
+                        reader -> Flux.fromStream(reader.lines()),
+                        this::closeQuietly)
+                .subscribeOn(Schedulers.boundedElastic())
+                .index()
+                .filter(line -> !line.getT2().isBlank())
+                .map(line -> parse(line.getT1() + 1, line.getT2()))
+                .buffer(batchSize)
+                .concatMap(this::upsert)
+                .doOnNext(imported::addAndGet)
+                .then(Mono.fromCallable(imported::get))
+                .doOnNext(count -> log.info("[TRANSFER] Imported {} advisories", count))
+                .onErrorMap(ValidationException.class, e -> {
+                    log.warn("[TRANSFER] Import stopped after {} advisories: {}", imported.get(), e.getMessage());
+                    return new ValidationException(e.getMessage() + "; " + imported.get() + " advisories were imported before it");
+                });
+    }
+
+    private Document parse(long lineNumber, String line) {
+
+        Document doc;
+        try {
+            doc = Document.parse(line);
+        } catch (JsonParseException e) {
+            throw new ValidationException("Invalid NDJSON at line " + lineNumber + ": " + e.getMessage());
+        }
+
+        validate(lineNumber, doc);
+
+        return doc;
+    }
+
+    // what the prefix index, the caches and AdvisoryMapper read without null checks
+    private void validate(long lineNumber, Document doc) {
+
+        require(lineNumber, doc, "_id", String.class);
+        require(lineNumber, doc, "city", String.class);
+
+        Document country = require(lineNumber, doc, "country", Document.class);
+        require(lineNumber, country, "country.name", "name", String.class);
+
+        Document weather = require(lineNumber, doc, "weather", Document.class);
+        for (String field : List.of("temperature", "feelsLike", "humidity", "windSpeed")) {
+            require(lineNumber, weather, "weather." + field, field, Number.class);
+        }
+    }
+
+    private <T> T require(long lineNumber, Document doc, String field, Class<T> type) {
+        return require(lineNumber, doc, field, field, type);
+    }
+
+    private <T> T require(long lineNumber, Document doc, String path, String field, Class<T> type) {
+
+        Object value = doc.get(field);
+
+        if (value == null) {
+            throw new ValidationException("Advisory at line " + lineNumber + " has no " + path);
+        }
+
+        if (!type.isInstance(value)) {
+            throw new ValidationException("Advisory at line " + lineNumber + " has an invalid " + path
+                    + ": expected " + type.getSimpleName().toLowerCase() + ", got " + value.getClass().getSimpleName());
+        }
+
+        if (value instanceof String text && text.isBlank()) {
+            throw new ValidationException("Advisory at line " + lineNumber + " has a blank " + path);
+        }
+
+        return type.cast(value);
+    }
+
+    // unordered replace-or-insert by _id, one round trip per batch; syncedAt
+    // is stamped with the import time so /changes pollers see the imported
+    // advisories (the exported value may be older than their last poll)
+    private Mono<Long> upsert(List<Document> docs) {
+
+        Date importedAt = new Date();
+        docs.forEach(doc -> doc.put("syncedAt", importedAt));
+
+        List<WriteModel<Document>> writes = docs.stream()
+                .<WriteModel<Document>>map(doc -> new ReplaceOneModel<>(
+                        Filters.eq("_id", doc.get("_id")), doc, new ReplaceOptions().upsert(true)))
+                .toList();
+
+        Map<String, String> cityByKey = new LinkedHashMap<>();
+        docs.forEach(doc -> cityByKey.put(String.valueOf(doc.get("_id")), doc.getString("city")));
+
+        return template.getCollection(collection())
+                .flatMap(c -> Mono.from(c.bulkWrite(writes, new BulkWriteOptions().ordered(false))))
+                .then(invalidations.publishAll(cityByKey, AdvisoryInvalidation.Type.SYNCED))
+                .thenReturn((long) docs.size());
+    }
+
+    private BufferedReader reader(InputStream raw) throws IOException {
+
+        InputStream in = new BufferedInputStream(raw);
+        in.mark(2);
+        boolean gzipped = in.read() == 0x1f && in.read() == 0x8b;
+        in.reset();
+
+        return new BufferedReader(new InputStreamReader(
+                gzipped ? new GZIPInputStream(in) : in, StandardCharsets.UTF_8));
+    }
+
+    private void closeQuietly(BufferedReader reader) {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            log.debug("[TRANSFER] Failed closing import stream: {}", e.getMessage());
+        }
+    }
+
+    private String collection() {
+        return template.getCollectionName(TravelAdvisory.class);
+    }
+
+    // a gzip stream cut into flushed chunks, one per batch of lines
+    private static class GzipChunks {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private final GZIPOutputStream gzip;
+
+        GzipChunks() throws IOException {
+            this.gzip = new GZIPOutputStream(out, 64 * 1024, true);
+        }
+
+        byte[] write(List<String> lines) {
+            try {
+                for (String line : lines) {
+                    gzip.write(line.getBytes(StandardCharsets.UTF_8));
+                    gzip.write('\n');
+                }
+                gzip.flush();
+                return drain();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        byte[] finish() throws IOException {
+            gzip.finish();
+            return drain();
+        }
+
+        private byte[] drain() {
+            byte[] chunk = out.toByteArray();
+            out.reset();
+            return chunk;
+        }
+
+        void close() {
+            try {
+                gzip.close();
+            } catch (IOException ignored) {
+                // nothing left to flush for an abandoned export
+            }
+        }
+    }
+}
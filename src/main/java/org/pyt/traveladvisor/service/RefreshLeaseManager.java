@@ -0,0 +1,196 @@
+package org.pyt.traveladvisor.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.pyt.traveladvisor.config.ClusterProperties;
+import org.pyt.traveladvisor.model.RefreshLease;
+import org.pyt.traveladvisor.model.RefreshNode;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+// Splits cityKey hashes into fixed partitions and leases them to instances
+// through Mongo, so each city is refreshed by exactly one node. Every heartbeat
+// renews this node's leases, releases any above its fair share and claims
+// expired ones, which moves work off dead nodes once their leases lapse.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RefreshLeaseManager {
+
+    private final ReactiveMongoTemplate template;
+    private final ClusterProperties props;
+
+    private volatile Set<Integer> owned = Set.of();
+    private volatile Instant ownedUntil = Instant.EPOCH;
+
+    public boolean owns(String cityKey) {
+
+        ClusterProperties.Lease lease = props.getLease();
+
+        if (!lease.isEnabled()) {
+            return true;
+        }
+
+        // leases this node could not renew may already belong to someone else
+        return Instant.now().isBefore(ownedUntil)
+                && owned.contains(partitionOf(cityKey, lease.getPartitions()));
+    }
+
+    static int partitionOf(String cityKey, int partitions) {
+        return Math.floorMod(cityKey.hashCode(), partitions);
+    }
+
+    // ---------------- HEARTBEAT ----------------
+
+    @Scheduled(fixedDelayString = "${app.cluster.lease.heartbeat:PT10S}")
+    public Mono<Void> heartbeat() {
+
+        if (!props.getLease().isEnabled()) {
+            return Mono.empty();
+        }
+
+        String me = props.getInstanceId();
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(props.getLease().getTtl());
+
+        return registerNode(me, expiresAt)
+                .then(countLiveNodes(now))
+                .flatMap(live -> renewOwned(me, expiresAt)
+                        .then(ownedPartitions(me, now))
+                        .flatMap(current -> rebalance(me, current, fairShare(live), now, expiresAt)))
+                .doOnNext(partitions -> {
+                    if (!partitions.equals(owned)) {
+                        log.info("[LEASE] Instance {} now owns {} partitions: {}", me, partitions.size(), partitions);
+                    }
+                    owned = partitions;
+                    ownedUntil = expiresAt;
+                })
+                .onErrorResume(err -> {
+                    log.warn("[LEASE] Heartbeat failed for instance {}: {}", me, err.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Mono<Void> registerNode(String me, Instant expiresAt) {
+        return template.upsert(
+                        Query.query(Criteria.where("_id").is(me)),
+                        new Update().set("expiresAt", expiresAt),
+                        RefreshNode.class)
+                .then();
+    }
+
+    private Mono<Long> countLiveNodes(Instant now) {
+        return template.count(Query.query(Criteria.where("expiresAt").gt(now)), RefreshNode.class);
+    }
+
+    private int fairShare(long liveNodes) {
+        int partitions = props.getLease().getPartitions();
+        long nodes = Math.max(1, liveNodes);
+        return (int) ((partitions + nodes - 1) / nodes);
+    }
+
+    private Mono<Void> renewOwned(String me, Instant expiresAt) {
+        return template.updateMulti(
+                        Query.query(Criteria.where("owner").is(me)),
+                        new Update().set("expiresAt", expiresAt),
+                        RefreshLease.class)
+                .then();
+    }
+
+    private Mono<Set<Integer>> ownedPartitions(String me, Instant now) {
+        return template.find(
+                        Query.query(Criteria.where("owner").is(me).and("expiresAt").gt(now)),
+                        RefreshLease.class)
+                .map(RefreshLease::getPartition)
+                .collect(Collectors.toSet());
+    }
+
+    private Mono<Set<Integer>> rebalance(String me, Set<Integer> current, int share, Instant now, Instant expiresAt) {
+
+        if (current.size() > share) {
+            List<Integer> surplus = current.stream().sorted().skip(share).toList();
+            Set<Integer> kept = new HashSet<>(current);
+            surplus.forEach(kept::remove);
+            return release(me, surplus).thenReturn(Set.copyOf(kept));
+        }
+
+        if (current.size() < share) {
+            int partitions = props.getLease().getPartitions();
+            // random start spreads concurrent claimers over the partition space
+            int offset = ThreadLocalRandom.current().nextInt(partitions);
+
+            return Flux.range(0, partitions)
+                    .map(i -> (i + offset) % partitions)
+                    .filter(p -> !current.contains(p))
+                    .concatMap(p -> claim(me, p, now, expiresAt))
+                    .take(share - current.size())
+                    .collect(Collectors.toCollection(() -> new HashSet<>(current)))
+                    .map(Set::copyOf);
+        }
+
+        return Mono.just(current);
+    }
+
+    private Mono<Integer> claim(String me, int partition, Instant now, Instant expiresAt) {
+
+        Query free = Query.query(Criteria.where("_id").is(partition)
+                .orOperator(
+                        Criteria.where("expiresAt").lt(now),
+                        Criteria.where("owner").is(me)));
+
+        return template.findAndModify(
+                        free,
+                        new Update().set("owner", me).set("expiresAt", expiresAt),
+                        FindAndModifyOptions.options().upsert(true).returnNew(true),
+                        RefreshLease.class)
+                .map(RefreshLease::getPartition)
+                // the upsert collides when another node holds a live lease
+                .onErrorResume(DuplicateKeyException.class, e -> Mono.empty());
+    }
+
+    private Mono<Void> release(String me, List<Integer> partitions) {
+        log.info("[LEASE] Instance {} releasing partitions: {}", me, partitions);
+        return template.updateMulti(
+                        Query.query(Criteria.where("_id").in(partitions).and("owner").is(me)),
+                        new Update().set("owner", null).set("expiresAt", Instant.EPOCH),
+                        RefreshLease.class)
+                .then();
+    }
+
+    // hand partitions over immediately instead of waiting for the TTL
+    @PreDestroy
+    void shutdown() {
+
+        if (!props.getLease().isEnabled()) {
+            return;
+        }
+
+        String me = props.getInstanceId();
+
+        release(me, List.copyOf(owned))
+                .then(template.remove(Query.query(Criteria.where("_id").is(me)), RefreshNode.class))
+                .onErrorResume(err -> {
+                    log.warn("[LEASE] Failed releasing leases on shutdown: {}", err.getMessage());
+                    return Mono.empty();
+                })
+                .block(Duration.ofSeconds(5));
+    }
+}
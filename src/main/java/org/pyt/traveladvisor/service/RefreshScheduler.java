@@ -0,0 +1,34 @@
+package org.pyt.traveladvisor.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.pyt.traveladvisor.config.ClusterProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+// With leases enabled every node periodically refreshes the partitions it owns.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RefreshScheduler {
+
+    private final AdvisoryService service;
+    private final ClusterProperties props;
+
+    @Scheduled(
+            fixedDelayString = "${app.cluster.refresh-interval:PT30M}",
+            initialDelayString = "${app.cluster.lease.ttl:PT30S}")
+    public Mono<Void> refreshOwnedCities() {
+
+        if (!props.getLease().isEnabled()) {
+            return Mono.empty();
+        }
+
+        log.info("[SCHEDULER] Refreshing cities owned by instance: {}", props.getInstanceId());
+        return service.refresh(null, null)
+                .count()
+                .doOnNext(count -> log.info("[SCHEDULER] Refreshed {} cities", count))
+                .then();
+    }
+}
@@ -0,0 +1,176 @@
+package org.pyt.traveladvisor.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.pyt.traveladvisor.cache.AdvisoryCache;
+import org.pyt.traveladvisor.cache.AdvisoryJsonCache;
+import org.pyt.traveladvisor.cache.CountryCache;
+import org.pyt.traveladvisor.cache.ReadStats;
+import org.pyt.traveladvisor.client.CountryClient;
+import org.pyt.traveladvisor.dto.CountryApiResponseDto;
+import org.pyt.traveladvisor.model.TravelAdvisory;
+import org.pyt.traveladvisor.repository.TravelAdvisoryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+// Loads the hottest advisories and their country records before the app
+// reports ready. Spring Boot publishes ReadinessState.ACCEPTING_TRAFFIC
+// only after all ApplicationRunners return, so /actuator/health/readiness
+// stays DOWN until this finishes (or times out).
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WarmupService implements ApplicationRunner {
+
+    private final TravelAdvisoryRepository repo;
+    private final ReactiveMongoTemplate template;
+    private final AdvisoryCache cache;
+    private final AdvisoryJsonCache jsonCache;
+    private final CountryCache countries;
+    private final CountryClient countryClient;
+    private final AdaptiveSyncLimiter limiter;
+    private final ReadStats readStats;
+    private final JsonMapper jsonMapper;
+
+    @Value("${app.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.warmup.top-n:500}")
+    private int topN;
+
+    @Value("${app.warmup.snapshot-file:}")
+    private String snapshotFile;
+
+    @Value("${app.warmup.timeout:PT60S}")
+    private Duration timeout;
+
+    // ---------------- WARM-UP ----------------
+
+    @Override
+    public void run(ApplicationArguments args) {
+
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        Snapshot snapshot = readSnapshot();
+
+        if (snapshot != null && snapshot.countries() != null) {
+            // aged from when they were written, so stale ones are fetched again
+            Instant writtenAt = snapshot.writtenAt() != null ? snapshot.writtenAt() : Instant.EPOCH;
+            snapshot.countries().forEach(country -> countries.put(country, writtenAt));
+        }
+
+        Mono<List<String>> hotKeys = snapshot != null && snapshot.hotKeys() != null && !snapshot.hotKeys().isEmpty()
+                ? Mono.just(snapshot.hotKeys())
+                : recentlySyncedKeys();
+
+        try {
+            Long warmed = hotKeys
+                    .flatMapMany(keys -> {
+                        long readStartedAt = System.nanoTime();
+                        return repo.findAllById(keys)
+                                .doOnNext(advisory -> {
+                                    cache.put(advisory, readStartedAt);
+                                    jsonCache.json(advisory);
+                                });
+                    })
+                    .collectList()
+                    .flatMap(advisories -> warmCountries(advisories).thenReturn((long) advisories.size()))
+                    .block(timeout);
+
+            log.info("[WARMUP] Warmed {} advisories and {} countries in {}ms",
+                    warmed, countries.all().size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            // a cold start is slower, not broken
+            log.warn("[WARMUP] Warm-up incomplete, continuing: {}", e.getMessage());
+        }
+    }
+
+    // without a snapshot there are no read counts yet; recent syncs are the best guess
+    private Mono<List<String>> recentlySyncedKeys() {
+
+        Query query = new Query().with(Sort.by(Sort.Direction.DESC, "syncedAt")).limit(topN);
+        query.fields().include("_id");
+
+        return template.find(query, TravelAdvisory.class)
+                .map(TravelAdvisory::getCityKey)
+                .collectList();
+    }
+
+    private Mono<Void> warmCountries(List<TravelAdvisory> advisories) {
+
+        return Flux.fromIterable(advisories)
+                .map(advisory -> advisory.getCountry().getName())
+                .distinct()
+                .filter(name -> !countries.containsName(name))
+                .flatMap(name -> limiter.run(countryClient.getCountryByName(name))
+                        .doOnNext(countries::put)
+                        .onErrorResume(err -> {
+                            log.debug("[WARMUP] Could not load country: {}, error: {}", name, err.getMessage());
+                            return Mono.empty();
+                        }), 4)
+                .then();
+    }
+
+    // ---------------- SNAPSHOT ----------------
+
+    @PreDestroy
+    void writeSnapshot() {
+
+        if (!enabled || snapshotFile == null || snapshotFile.isBlank()) {
+            return;
+        }
+
+        Snapshot snapshot = new Snapshot(Instant.now(), readStats.top(topN), countries.all());
+        Path target = Path.of(snapshotFile);
+
+        try {
+            // write-then-rename so a crash mid-write never leaves a torn snapshot
+            Files.createDirectories(target.toAbsolutePath().getParent());
+            Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+            Files.write(tmp, jsonMapper.writeValueAsBytes(snapshot));
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("[WARMUP] Wrote snapshot with {} hot keys to {}", snapshot.hotKeys().size(), target);
+        } catch (IOException e) {
+            log.warn("[WARMUP] Failed writing snapshot {}: {}", target, e.getMessage());
+        }
+    }
+
+    private Snapshot readSnapshot() {
+
+        if (snapshotFile == null || snapshotFile.isBlank() || !Files.exists(Path.of(snapshotFile))) {
+            return null;
+        }
+
+        try {
+            Snapshot snapshot = jsonMapper.readValue(Files.readAllBytes(Path.of(snapshotFile)), Snapshot.class);
+            log.info("[WARMUP] Restoring snapshot from {} written at {}", snapshotFile, snapshot.writtenAt());
+            return snapshot;
+        } catch (IOException | RuntimeException e) {
+            log.warn("[WARMUP] Ignoring unreadable snapshot {}: {}", snapshotFile, e.getMessage());
+            return null;
+        }
+    }
+
+    public record Snapshot(Instant writtenAt, List<String> hotKeys, List<CountryApiResponseDto> countries) {
+    }
+}
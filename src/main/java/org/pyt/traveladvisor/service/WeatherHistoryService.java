@@ -0,0 +1,182 @@
+package org.pyt.traveladvisor.service;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.mongodb.client.model.TimeSeriesGranularity;
+import com.mongodb.client.model.TimeSeriesOptions;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.pyt.traveladvisor.dto.WeatherHistoryBucketDto;
+import org.pyt.traveladvisor.exception.ValidationException;
+import org.pyt.traveladvisor.metrics.RequestTiming;
+import org.pyt.traveladvisor.model.TravelAdvisory;
+import org.pyt.traveladvisor.model.WeatherSample;
+import org.pyt.traveladvisor.util.MongoUtil;
+import org.pyt.traveladvisor.util.TimeUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WeatherHistoryService {
+
+    private static final String COLLECTION = "weather_history";
+    private static final int NAMESPACE_EXISTS = 48;
+
+    private final ReactiveMongoTemplate template;
+
+    @Value("${app.history.retention:P30D}")
+    private Duration retention;
+
+    @Value("${app.history.init-timeout:PT10S}")
+    private Duration initTimeout;
+
+    // ---------------- COLLECTION ----------------
+
+    // blocks startup so the first sync never auto-creates a plain collection;
+    // an unreachable database only costs the timeout, history is best effort
+    @PostConstruct
+    void createCollection() {
+        try {
+            template.getMongoDatabase()
+                    .flatMap(db -> Flux.from(db.listCollections().filter(new Document("name", COLLECTION)))
+                            .collectList()
+                            .flatMap(found -> found.isEmpty() ? create(db) : updateRetention(db, found.get(0))))
+                    .block(initTimeout);
+        } catch (RuntimeException e) {
+            log.warn("[HISTORY] Could not prepare time-series collection {}: {}", COLLECTION, e.getMessage());
+        }
+    }
+
+    private Mono<Void> create(MongoDatabase db) {
+        return Mono.from(db.createCollection(COLLECTION, timeSeriesOptions()))
+                .doOnSuccess(v -> log.info("[HISTORY] Created time-series collection {} with retention {}", COLLECTION, retention))
+                // another instance won the race
+                .onErrorResume(MongoCommandException.class, e -> e.getErrorCode() == NAMESPACE_EXISTS
+                        ? Mono.empty()
+                        : Mono.error(e));
+    }
+
+    private Mono<Void> updateRetention(MongoDatabase db, Document info) {
+
+        Document options = info.get("options", Document.class);
+
+        if (options == null || options.get("timeseries") == null) {
+            log.warn("[HISTORY] Collection {} exists but is not a time-series collection", COLLECTION);
+            return Mono.empty();
+        }
+
+        Object current = options.get("expireAfterSeconds");
+        long wanted = retention.toSeconds();
+
+        if (current instanceof Number n && n.longValue() == wanted) {
+            return Mono.empty();
+        }
+
+        return Mono.from(db.runCommand(new Document("collMod", COLLECTION).append("expireAfterSeconds", wanted)))
+                .doOnSuccess(result -> log.info("[HISTORY] Changed retention of {} from {}s to {}s", COLLECTION, current, wanted))
+                .then();
+    }
+
+    private CreateCollectionOptions timeSeriesOptions() {
+        return new CreateCollectionOptions()
+                .timeSeriesOptions(new TimeSeriesOptions("timestamp")
+                        .metaField("cityKey")
+                        .granularity(TimeSeriesGranularity.HOURS))
+                .expireAfter(retention.toSeconds(), TimeUnit.SECONDS);
+    }
+
+    // ---------------- RECORD ----------------
+
+    public Mono<Void> record(TravelAdvisory advisory) {
+
+        WeatherSample sample = new WeatherSample(
+                null,
+                advisory.getSyncedAt(),
+                advisory.getCityKey(),
+                advisory.getWeather().getTemperature(),
+                advisory.getWeather().getFeelsLike(),
+                advisory.getWeather().getHumidity(),
+                advisory.getWeather().getWindSpeed());
+
+        // history is best effort; a failed append must not fail the sync
+        return RequestTiming.time("mongo", template.insert(sample, COLLECTION))
+                .onErrorResume(err -> {
+                    log.warn("[HISTORY] Failed recording weather for: {}, error: {}", advisory.getCityKey(), err.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    // ---------------- QUERY ----------------
+
+    public Flux<WeatherHistoryBucketDto> history(String cityKey, String interval, String from, String to) {
+
+        String unit = unitOf(interval);
+        Instant end = to != null ? TimeUtil.parseInstant(to, "to") : Instant.now();
+        Instant start = from != null ? TimeUtil.parseInstant(from, "from") : end.minus(Duration.ofDays(7));
+
+        log.info("[HISTORY] Fetching {}ly weather history for: {} between {} and {}", unit, cityKey, start, end);
+
+        // grouped server-side, one document per bucket crosses the wire
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("cityKey", cityKey)
+                        .append("timestamp", new Document("$gte", Date.from(start)).append("$lt", Date.from(end)))),
+                new Document("$group", new Document("_id",
+                        new Document("$dateTrunc", new Document("date", "$timestamp").append("unit", unit)))
+                        .append("samples", new Document("$sum", 1))
+                        .append("minTemperature", new Document("$min", "$temperature"))
+                        .append("maxTemperature", new Document("$max", "$temperature"))
+                        .append("avgTemperature", new Document("$avg", "$temperature"))
+                        .append("minHumidity", new Document("$min", "$humidity"))
+                        .append("maxHumidity", new Document("$max", "$humidity"))
+                        .append("avgHumidity", new Document("$avg", "$humidity"))
+                        .append("avgWindSpeed", new Document("$avg", "$windSpeed"))
+                        .append("maxWindSpeed", new Document("$max", "$windSpeed"))),
+                new Document("$sort", new Document("_id", 1)));
+
+        return RequestTiming.time("mongo", template.getCollection(COLLECTION)
+                .flatMapMany(collection -> collection.aggregate(pipeline)))
+                .map(this::toBucket);
+    }
+
+    private WeatherHistoryBucketDto toBucket(Document doc) {
+        return new WeatherHistoryBucketDto(
+                doc.getDate("_id").toInstant(),
+                MongoUtil.number(doc, "samples").intValue(),
+                MongoUtil.number(doc, "minTemperature").doubleValue(),
+                MongoUtil.number(doc, "maxTemperature").doubleValue(),
+                MongoUtil.number(doc, "avgTemperature").doubleValue(),
+                MongoUtil.number(doc, "minHumidity").doubleValue(),
+                MongoUtil.number(doc, "maxHumidity").doubleValue(),
+                MongoUtil.number(doc, "avgHumidity").doubleValue(),
+                MongoUtil.number(doc, "avgWindSpeed").doubleValue(),
+                MongoUtil.number(doc, "maxWindSpeed").doubleValue());
+    }
+
+    private String unitOf(String interval) {
+
+        if (interval == null || interval.equalsIgnoreCase("hour")) {
+            return "hour";
+        }
+
+        if (interval.equalsIgnoreCase("day")) {
+            return "day";
+        }
+
+        throw new ValidationException("interval must be 'hour' or 'day'");
+    }
+}
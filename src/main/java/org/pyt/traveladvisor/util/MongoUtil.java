@@ -0,0 +1,14 @@
+package org.pyt.traveladvisor.util;
+
+import org.bson.Document;
+
+public class MongoUtil {
+
+    // $min/$max/$sum keep the stored BSON type (int, long or double)
+    public static Number number(Document doc, String key) {
+
+        Object value = doc.get(key);
+
+        return value instanceof Number n ? n : 0;
+    }
+}
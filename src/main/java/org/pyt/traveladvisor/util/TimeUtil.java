@@ -1,8 +1,11 @@
 package org.pyt.traveladvisor.util;
 
+import org.pyt.traveladvisor.exception.ValidationException;
+
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 
 public class TimeUtil {
 
@@ -16,4 +19,13 @@ public class TimeUtil {
 
         return FORMAT.format(local.atOffset(ZoneOffset.UTC));
     }
+
+    // request parameters; a malformed value is the caller's fault (400)
+    public static Instant parseInstant(String value, String name) {
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new ValidationException(name + " must be an ISO-8601 instant, e.g. 2024-01-01T00:00:00Z");
+        }
+    }
 }
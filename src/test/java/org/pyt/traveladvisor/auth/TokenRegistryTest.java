@@ -0,0 +1,180 @@
+package org.pyt.traveladvisor.auth;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRegistryTest {
+
+    @TempDir
+    Path dir;
+
+    // ---------------- MATCH ----------------
+
+    @Test
+    void matchesHeaderAndRawToken() {
+
+        TokenRegistry registry = registry("s3cret", null);
+
+        assertThat(registry.matchHeader("Bearer s3cret")).isNotNull();
+        assertThat(registry.matchToken("s3cret")).isNotNull();
+        assertThat(registry.matchHeader("Bearer s3cret").name()).isEqualTo("default");
+    }
+
+    @Test
+    void rejectsNearMisses() {
+
+        TokenRegistry registry = registry("s3cret", null);
+
+        assertThat(registry.matchHeader(null)).isNull();
+        assertThat(registry.matchHeader("")).isNull();
+        assertThat(registry.matchHeader("Bearer ")).isNull();
+        assertThat(registry.matchHeader("Bearer s3cre")).isNull();
+        assertThat(registry.matchHeader("Bearer s3cret2")).isNull();
+        assertThat(registry.matchHeader("Bearer S3cret")).isNull();
+        assertThat(registry.matchHeader("bearer s3cret")).isNull();
+        assertThat(registry.matchHeader("s3cret")).isNull();
+        assertThat(registry.matchToken("Bearer s3cret")).isNull();
+        assertThat(registry.matchToken("s3cre\u0000")).isNull();
+    }
+
+    @Test
+    void noConfiguredTokensMatchesNothing() {
+
+        TokenRegistry registry = registry("", null);
+
+        assertThat(registry.matchHeader("Bearer ")).isNull();
+        assertThat(registry.matchToken("")).isNull();
+    }
+
+    // ---------------- RATE LIMIT ----------------
+
+    @Test
+    void defaultTokenIsUnlimited() {
+
+        TokenRegistry.Token token = registry("s3cret", null).matchToken("s3cret");
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(token.tryAcquire()).isZero();
+        }
+    }
+
+    @Test
+    void admitsBurstThenAsksToWait() throws IOException {
+
+        TokenRegistry registry = registry("s3cret", write("limited 1 2"));
+        TokenRegistry.Token token = registry.matchToken("limited");
+
+        assertThat(token.tryAcquire()).isZero();
+        assertThat(token.tryAcquire()).isZero();
+
+        long wait = token.tryAcquire();
+        assertThat(wait).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void admitsAgainOnceTheIntervalHasPassed() throws Exception {
+
+        TokenRegistry registry = registry("s3cret", write("fast 1000 1"));
+        TokenRegistry.Token token = registry.matchToken("fast");
+
+        assertThat(token.tryAcquire()).isZero();
+        assertThat(token.tryAcquire()).isPositive();
+
+        Thread.sleep(5);
+
+        assertThat(token.tryAcquire()).isZero();
+    }
+
+    // ---------------- RELOAD ----------------
+
+    @Test
+    void picksUpRotatedTokens() throws IOException {
+
+        Path file = write("old 0");
+        TokenRegistry registry = registry("s3cret", file);
+
+        assertThat(registry.matchToken("old")).isNotNull();
+
+        rewrite(file, "new 0");
+        registry.reloadIfChanged();
+
+        assertThat(registry.matchToken("old")).isNull();
+        assertThat(registry.matchToken("new")).isNotNull();
+        assertThat(registry.matchToken("s3cret")).isNotNull();
+    }
+
+    @Test
+    void keepsLimiterStateForUnchangedTokens() throws IOException {
+
+        Path file = write("limited 1 1");
+        TokenRegistry registry = registry("s3cret", file);
+
+        assertThat(registry.matchToken("limited").tryAcquire()).isZero();
+
+        rewrite(file, "limited 1 1\nother 0");
+        registry.reloadIfChanged();
+
+        assertThat(registry.matchToken("limited").tryAcquire()).isPositive();
+    }
+
+    @Test
+    void defaultTokenSurvivesAnUnreadableFirstLoad() throws IOException {
+
+        TokenRegistry registry = registry("s3cret", write("broken not-a-number"));
+
+        assertThat(registry.matchToken("s3cret")).isNotNull();
+        assertThat(registry.matchToken("broken")).isNull();
+    }
+
+    @Test
+    void failedReloadKeepsPreviousEntriesAndRetries() throws IOException {
+
+        Path file = write("good 0");
+        TokenRegistry registry = registry("s3cret", file);
+
+        FileTime broken = rewrite(file, "good 0\nbad x");
+        registry.reloadIfChanged();
+
+        assertThat(registry.matchToken("good")).isNotNull();
+        assertThat(registry.matchToken("s3cret")).isNotNull();
+
+        // fixed in place without a new mtime: the failed version was not recorded
+        Files.writeString(file, "good 0\nbetter 0");
+        Files.setLastModifiedTime(file, broken);
+        registry.reloadIfChanged();
+
+        assertThat(registry.matchToken("better")).isNotNull();
+    }
+
+    private TokenRegistry registry(String bearerToken, Path tokensFile) {
+        TokenRegistry registry = new TokenRegistry();
+        ReflectionTestUtils.setField(registry, "bearerToken", bearerToken);
+        ReflectionTestUtils.setField(registry, "tokensFile", tokensFile == null ? "" : tokensFile.toString());
+        registry.init();
+        return registry;
+    }
+
+    private Path write(String content) throws IOException {
+        Path file = dir.resolve("tokens.txt");
+        Files.writeString(file, content);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minusSeconds(60)));
+        return file;
+    }
+
+    private FileTime rewrite(Path file, String content) throws IOException {
+        Files.writeString(file, content);
+        FileTime modified = FileTime.from(Instant.now());
+        Files.setLastModifiedTime(file, modified);
+        return modified;
+    }
+}
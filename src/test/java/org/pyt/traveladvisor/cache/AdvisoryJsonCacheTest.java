@@ -0,0 +1,86 @@
+package org.pyt.traveladvisor.cache;
+
+import org.junit.jupiter.api.Test;
+import org.pyt.traveladvisor.dto.AdvisoryResponseDto;
+import org.pyt.traveladvisor.dto.ApiResponse;
+import org.pyt.traveladvisor.mapper.AdvisoryMapper;
+import org.pyt.traveladvisor.model.CountryInfo;
+import org.pyt.traveladvisor.model.TravelAdvisory;
+import org.pyt.traveladvisor.model.WeatherInfo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import reactor.core.publisher.Flux;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// the envelope is hand-written bytes; it has to stay identical to what Jackson writes for ApiResponse
+@SpringBootTest
+class AdvisoryJsonCacheTest {
+
+    @Autowired
+    private AdvisoryJsonCache cache;
+
+    @Autowired
+    private AdvisoryMapper mapper;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Test
+    void envelopeMatchesJackson() {
+
+        List<TravelAdvisory> advisories = List.of(advisory("london", "London"), advisory("paris", "Paris"));
+
+        assertThat(bytes(cache.envelope(advisories, DefaultDataBufferFactory.sharedInstance)))
+                .isEqualTo(jsonMapper.writeValueAsBytes(ApiResponse.success(dtos(advisories))));
+    }
+
+    @Test
+    void pagedEnvelopeMatchesJackson() {
+
+        List<TravelAdvisory> advisories = List.of(advisory("london", "London"), advisory("paris", "Paris"));
+
+        assertThat(bytes(cache.envelope(advisories, "paris", DefaultDataBufferFactory.sharedInstance)))
+                .isEqualTo(jsonMapper.writeValueAsBytes(ApiResponse.page(dtos(advisories), "paris")));
+    }
+
+    @Test
+    void emptyEnvelopeMatchesJackson() {
+
+        assertThat(bytes(cache.envelope(List.of(), DefaultDataBufferFactory.sharedInstance)))
+                .isEqualTo(jsonMapper.writeValueAsBytes(ApiResponse.success(List.of())));
+    }
+
+    private List<AdvisoryResponseDto> dtos(List<TravelAdvisory> advisories) {
+        return advisories.stream().map(mapper::toDto).toList();
+    }
+
+    private byte[] bytes(Flux<DataBuffer> body) {
+        DataBuffer joined = DataBufferUtils.join(body).block();
+        byte[] bytes = new byte[joined.readableByteCount()];
+        joined.read(bytes);
+        return bytes;
+    }
+
+    private TravelAdvisory advisory(String key, String city) {
+        TravelAdvisory adv = new TravelAdvisory();
+        adv.setCityKey(key);
+        adv.setCity(city);
+        adv.setWeather(new WeatherInfo("light rain", 12.5, 11.0, 81, 4.2, "06:41", "19:02"));
+        adv.setCountry(new CountryInfo("United Kingdom", "GBP", "London", List.of("UTC"),
+                Map.of("eng", "English"), "https://flagcdn.com/gb.svg", 67_000_000L, "Europe"));
+        adv.setLocation(new GeoJsonPoint(-0.1276, 51.5072));
+        adv.setSyncedAt(Instant.parse("2026-01-15T10:00:00Z"));
+        adv.setCreatedAt(Instant.parse("2026-01-01T00:00:00Z"));
+        return adv;
+    }
+}
@@ -0,0 +1,85 @@
+package org.pyt.traveladvisor.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.pyt.traveladvisor.model.CityAlias;
+import org.pyt.traveladvisor.repository.CityAliasRepository;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CityAliasRegistryTest {
+
+    @Mock
+    private CityAliasRepository repo;
+
+    @InjectMocks
+    private CityAliasRegistry registry;
+
+    @Test
+    void unknownNameIsItsOwnKey() {
+
+        when(repo.findById("atlantis")).thenReturn(Mono.empty());
+
+        StepVerifier.create(registry.resolve("atlantis")).expectNext("atlantis").verifyComplete();
+    }
+
+    @Test
+    void aliasLearnedElsewhereIsLoadedOnceThenServedFromMemory() {
+
+        when(repo.findById("nyc")).thenReturn(Mono.just(new CityAlias("nyc", "5128581", Instant.now())));
+
+        StepVerifier.create(registry.resolve("nyc")).expectNext("5128581").verifyComplete();
+        StepVerifier.create(registry.resolve("nyc")).expectNext("5128581").verifyComplete();
+
+        verify(repo, times(1)).findById("nyc");
+    }
+
+    @Test
+    void lookupFailureFallsBackToTheName() {
+
+        when(repo.findById("nyc")).thenReturn(Mono.error(new IllegalStateException("mongo down")));
+
+        StepVerifier.create(registry.resolve("nyc")).expectNext("nyc").verifyComplete();
+    }
+
+    @Test
+    void recordsOnlyNewAliases() {
+
+        when(repo.save(any(CityAlias.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+
+        StepVerifier.create(registry.record("new york", "5128581")).expectNext(true).verifyComplete();
+        StepVerifier.create(registry.record("new york", "5128581")).expectNext(false).verifyComplete();
+
+        verify(repo, times(1)).save(any(CityAlias.class));
+        StepVerifier.create(registry.resolve("new york")).expectNext("5128581").verifyComplete();
+    }
+
+    @Test
+    void canonicalKeyIsNotAnAlias() {
+
+        StepVerifier.create(registry.record("5128581", "5128581")).expectNext(false).verifyComplete();
+
+        verify(repo, never()).save(any(CityAlias.class));
+    }
+
+    @Test
+    void failedSaveStillReportsTheAlias() {
+
+        when(repo.save(any(CityAlias.class))).thenReturn(Mono.error(new IllegalStateException("mongo down")));
+
+        StepVerifier.create(registry.record("nyc", "5128581")).expectNext(true).verifyComplete();
+        StepVerifier.create(registry.resolve("nyc")).expectNext("5128581").verifyComplete();
+    }
+}
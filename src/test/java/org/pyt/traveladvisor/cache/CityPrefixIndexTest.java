@@ -0,0 +1,55 @@
+package org.pyt.traveladvisor.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class CityPrefixIndexTest {
+
+    private final CityPrefixIndex index = new CityPrefixIndex(mock(ReactiveMongoTemplate.class), mock(InvalidationBus.class));
+
+    @Test
+    void sharedNameSurvivesDeletingOneOfItsCities() {
+
+        index.stored("4409896", "springfield");
+        index.stored("4951788", "springfield");
+
+        index.deleted("4409896");
+        assertThat(index.suggest("spring", 10)).containsExactly("springfield");
+
+        index.deleted("4951788");
+        assertThat(index.suggest("spring", 10)).isEmpty();
+    }
+
+    @Test
+    void resyncUnderTheSameNameCountsOnce() {
+
+        index.stored("2643743", "london");
+        index.stored("2643743", "london");
+
+        index.deleted("2643743");
+
+        assertThat(index.suggest("lon", 10)).isEmpty();
+    }
+
+    @Test
+    void renamedCityGivesUpItsOldName() {
+
+        index.stored("1275339", "bombay");
+        index.stored("1275339", "mumbai");
+
+        assertThat(index.suggest("bom", 10)).isEmpty();
+        assertThat(index.suggest("mum", 10)).containsExactly("mumbai");
+    }
+
+    @Test
+    void deletingAnUnknownCityIsHarmless() {
+
+        index.stored("2988507", "paris");
+        index.deleted("0");
+
+        assertThat(index.suggest("par", 10)).containsExactly("paris");
+    }
+}
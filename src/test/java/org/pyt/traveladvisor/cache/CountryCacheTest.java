@@ -0,0 +1,48 @@
+package org.pyt.traveladvisor.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pyt.traveladvisor.dto.CountryApiResponseDto;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountryCacheTest {
+
+    private CountryCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CountryCache();
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofHours(1));
+    }
+
+    @Test
+    void freshlyLoadedCountryIsServed() {
+
+        cache.put(country("GB"));
+
+        assertThat(cache.get("GB")).isNotNull();
+        assertThat(cache.all()).hasSize(1);
+    }
+
+    @Test
+    void restoredCountryKeepsItsAge() {
+
+        cache.put(country("GB"), Instant.now().minus(Duration.ofMinutes(30)));
+        cache.put(country("FR"), Instant.now().minus(Duration.ofHours(2)));
+
+        assertThat(cache.get("GB")).isNotNull();
+        assertThat(cache.get("FR")).isNull();
+        assertThat(cache.all()).extracting(CountryApiResponseDto::getCca2).containsExactly("GB");
+    }
+
+    private CountryApiResponseDto country(String code) {
+        CountryApiResponseDto country = new CountryApiResponseDto();
+        country.setCca2(code);
+        return country;
+    }
+}
@@ -0,0 +1,124 @@
+package org.pyt.traveladvisor.cache;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.pyt.traveladvisor.config.ClusterProperties;
+import org.pyt.traveladvisor.model.AdvisoryInvalidation;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InvalidationBusTest {
+
+    private final ReactiveMongoTemplate template = mock(ReactiveMongoTemplate.class);
+    private final List<String> events = new CopyOnWriteArrayList<>();
+
+    private InvalidationBus bus;
+
+    @BeforeEach
+    void setUp() {
+
+        ClusterProperties props = new ClusterProperties();
+        props.setInstanceId("node-a");
+
+        bus = new InvalidationBus(template, props);
+        bus.addListener(message -> events.add("invalidate " + message.getCityKey()));
+
+        when(template.insert(any(AdvisoryInvalidation.class)))
+                .thenAnswer(inv -> Mono.fromSupplier(() -> {
+                    events.add("insert");
+                    return inv.getArgument(0);
+                }));
+    }
+
+    @Test
+    void publishDoesNothingUntilSubscribed() {
+
+        bus.publish("2643743", "London", AdvisoryInvalidation.Type.SYNCED);
+        bus.publishAll(Map.of("2643743", "London"), AdvisoryInvalidation.Type.SYNCED);
+
+        assertThat(events).isEmpty();
+        verify(template, never()).insert(any(AdvisoryInvalidation.class));
+    }
+
+    @Test
+    void invalidatesOnlyAfterTheWriteCompletes() {
+
+        Mono<Void> write = Mono.delay(Duration.ofMillis(50))
+                .doOnNext(tick -> events.add("write"))
+                .then();
+
+        write.then(bus.publish("2643743", "London", AdvisoryInvalidation.Type.SYNCED)).block();
+
+        assertThat(events).containsExactly("write", "invalidate 2643743", "insert");
+    }
+
+    @Test
+    void failedWriteInvalidatesNothing() {
+
+        Mono<Void> write = Mono.error(new IllegalStateException("write failed"));
+
+        write.then(bus.publish("2643743", "London", AdvisoryInvalidation.Type.SYNCED))
+                .onErrorResume(err -> Mono.empty())
+                .block();
+
+        assertThat(events).isEmpty();
+    }
+
+    @Test
+    void tailStartsAfterTheNewestStoredMessageAndSkipsOwnMessages() throws InterruptedException {
+
+        ObjectId newest = new ObjectId();
+        when(template.collectionExists(AdvisoryInvalidation.class)).thenReturn(Mono.just(true));
+        when(template.findOne(any(Query.class), eq(AdvisoryInvalidation.class)))
+                .thenReturn(Mono.just(message(newest, "0", "node-b")));
+        when(template.tail(any(Query.class), eq(AdvisoryInvalidation.class)))
+                .thenReturn(Flux.concat(
+                        Flux.just(message(new ObjectId(), "2988507", "node-a"), message(new ObjectId(), "2643743", "node-b")),
+                        Flux.never()));
+
+        bus.start();
+
+        // the start position is fixed before start() returns, i.e. before warm-up runs
+        verify(template).findOne(any(Query.class), eq(AdvisoryInvalidation.class));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(template, timeout(1000)).tail(query.capture(), eq(AdvisoryInvalidation.class));
+        assertThat(query.getValue().getQueryObject().get("_id", Document.class).get("$gt")).isEqualTo(newest);
+
+        awaitEvents();
+        assertThat(events).containsExactly("invalidate 2643743");
+
+        bus.stop();
+    }
+
+    private void awaitEvents() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(1).toNanos();
+        while (events.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private AdvisoryInvalidation message(ObjectId id, String cityKey, String origin) {
+        return new AdvisoryInvalidation(id.toHexString(), cityKey, "City", AdvisoryInvalidation.Type.SYNCED, origin, Instant.now());
+    }
+}
@@ -0,0 +1,61 @@
+package org.pyt.traveladvisor.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webtestclient.autoconfigure.AutoConfigureWebTestClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+// JSON stays the default for every endpoint; CBOR only on request
+@SpringBootTest
+@AutoConfigureWebTestClient
+class ContentNegotiationTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @Test
+    void noAcceptHeaderGetsJson() {
+
+        client.get().uri("/api/v1/advisories/suggest?prefix=a")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer test")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON);
+    }
+
+    @Test
+    void wildcardAcceptGetsJson() {
+
+        client.get().uri("/api/v1/advisories/suggest?prefix=a")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer test")
+                .accept(MediaType.ALL)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON);
+    }
+
+    @Test
+    void explicitCborGetsCbor() {
+
+        client.get().uri("/api/v1/advisories/suggest?prefix=a")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer test")
+                .accept(MediaType.APPLICATION_CBOR)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR);
+    }
+
+    @Test
+    void validationErrorIsAJson400() {
+
+        client.get().uri("/api/v1/advisories/suggest?prefix=a&limit=0")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer test")
+                .accept(MediaType.ALL)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON);
+    }
+}
@@ -0,0 +1,49 @@
+package org.pyt.traveladvisor.mapper;
+
+import org.junit.jupiter.api.Test;
+import org.pyt.traveladvisor.dto.AdvisoryField;
+import org.pyt.traveladvisor.dto.AdvisoryResponseDto;
+import org.pyt.traveladvisor.model.TravelAdvisory;
+import org.pyt.traveladvisor.model.WeatherInfo;
+import org.pyt.traveladvisor.service.AdvisoryEngine;
+
+import java.time.Instant;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdvisoryMapperTest {
+
+    private static final Instant SYNCED_AT = Instant.parse("2024-05-01T10:00:00Z");
+
+    private final AdvisoryMapper mapper = new AdvisoryMapper(new AdvisoryEngine());
+
+    @Test
+    void changeKeepsKeyAndSyncedAtOutsideTheSelection() {
+
+        AdvisoryResponseDto dto = mapper.toChangeDto(advisory(), Set.of(AdvisoryField.TEMPERATURE));
+
+        assertThat(dto.getCityKey()).isEqualTo("london");
+        assertThat(dto.getSyncedAt()).isEqualTo(SYNCED_AT);
+        assertThat(dto.getCity()).isNull();
+        assertThat(dto.getWeather().getTemperature()).isEqualTo(12.5);
+    }
+
+    @Test
+    void plainDtoHasNoKey() {
+
+        AdvisoryResponseDto dto = mapper.toDto(advisory(), Set.of(AdvisoryField.CITY));
+
+        assertThat(dto.getCityKey()).isNull();
+        assertThat(dto.getSyncedAt()).isNull();
+    }
+
+    private TravelAdvisory advisory() {
+        TravelAdvisory advisory = new TravelAdvisory();
+        advisory.setCityKey("london");
+        advisory.setCity("London");
+        advisory.setWeather(new WeatherInfo("light rain", 12.5, 11.0, 81, 4.2, "06:41", "19:02"));
+        advisory.setSyncedAt(SYNCED_AT);
+        return advisory;
+    }
+}
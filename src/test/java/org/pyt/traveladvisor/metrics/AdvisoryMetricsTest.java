@@ -0,0 +1,55 @@
+package org.pyt.traveladvisor.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdvisoryMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AdvisoryMetrics metrics = new AdvisoryMetrics(registry);
+
+    @Test
+    void tagsTheStatusClassOfTheResponse() {
+
+        StepVerifier.create(metrics.timeUpstream("openweather", "/data/2.5/weather",
+                        Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).<String>build())))
+                .verifyComplete();
+
+        StepVerifier.create(metrics.timeUpstream("openweather", "/data/2.5/weather",
+                        Mono.just(ResponseEntity.ok("body"))))
+                .expectNext("body")
+                .verifyComplete();
+
+        assertThat(count("REDIRECTION", "3xx")).isEqualTo(1);
+        assertThat(count("SUCCESS", "2xx")).isEqualTo(1);
+    }
+
+    @Test
+    void tagsTheStatusClassOfAnErrorResponse() {
+
+        Mono<ResponseEntity<String>> call = Mono.error(WebClientResponseException.create(
+                HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", null, null, null, null));
+
+        StepVerifier.create(metrics.timeUpstream("openweather", "/data/2.5/weather", call))
+                .expectError(WebClientResponseException.class)
+                .verify();
+
+        assertThat(count("CLIENT_ERROR", "4xx")).isEqualTo(1);
+    }
+
+    private long count(String outcome, String status) {
+        return registry.find("external.api.requests")
+                .tags("outcome", outcome, "status", status)
+                .timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+}
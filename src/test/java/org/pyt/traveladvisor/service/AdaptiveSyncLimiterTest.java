@@ -0,0 +1,138 @@
+package org.pyt.traveladvisor.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveSyncLimiterTest {
+
+    private SimpleMeterRegistry registry;
+    private AdaptiveSyncLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        limiter = limiter(1);
+    }
+
+    @Test
+    void runsWorkWithinTheLimit() throws InterruptedException {
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        Mono<Integer> work = Mono.fromCallable(() -> maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max))
+                .delayElement(Duration.ofMillis(5))
+                .doOnTerminate(running::decrementAndGet);
+
+        List<Mono<Integer>> calls = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            calls.add(limiter.run(work));
+        }
+
+        StepVerifier.create(Mono.when(calls))
+                .verifyComplete();
+
+        assertThat(maxRunning.get()).isEqualTo(1);
+        assertThat(awaitIdle()).isZero();
+    }
+
+    @Test
+    void queuedCountsOnlyWaitingCallers() {
+
+        Disposable holder = limiter.run(Mono.never()).subscribe();
+        Disposable first = limiter.run(Mono.just(1)).subscribe();
+        Disposable second = limiter.run(Mono.just(2)).subscribe();
+        limiter.run(Mono.just(3)).subscribe();
+
+        first.dispose();
+        second.dispose();
+
+        assertThat(limiter.queued()).isEqualTo(1);
+        assertThat(registry.get("advisory.sync.queued").gauge().value()).isEqualTo(1.0);
+
+        holder.dispose();
+
+        assertThat(limiter.queued()).isZero();
+    }
+
+    @Test
+    void cancelAfterGrantReturnsThePermit() throws InterruptedException {
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        int calls = 2_000;
+        CountDownLatch done = new CountDownLatch(calls);
+
+        for (int i = 0; i < calls; i++) {
+            pool.execute(() -> {
+                // cancelled at random points: queued, granted-not-started, running
+                Disposable call = limiter.run(Mono.delay(Duration.ofNanos(50), Schedulers.parallel()))
+                        .subscribe();
+                call.dispose();
+                done.countDown();
+            });
+        }
+
+        assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+        pool.shutdown();
+
+        StepVerifier.create(limiter.run(Mono.just("ok")))
+                .expectNext("ok")
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(awaitIdle()).isZero();
+        assertThat(limiter.queued()).isZero();
+    }
+
+    @Test
+    void backsOffOnOverloadAndNeverBelowTheMinimum() {
+
+        limiter = limiter(8);
+
+        for (int i = 0; i < 50; i++) {
+            StepVerifier.create(limiter.run(Mono.error(new TimeoutException())))
+                    .expectError()
+                    .verify();
+        }
+
+        assertThat(registry.get("advisory.sync.limit").gauge().value()).isEqualTo(1.0);
+    }
+
+    // permits are released in doFinally, just after the caller sees completion
+    private int awaitIdle() throws InterruptedException {
+        for (int i = 0; i < 100 && limiter.inFlight() > 0; i++) {
+            Thread.sleep(10);
+        }
+        return limiter.inFlight();
+    }
+
+    private AdaptiveSyncLimiter limiter(int initialLimit) {
+        registry = new SimpleMeterRegistry();
+        AdaptiveSyncLimiter created = new AdaptiveSyncLimiter(registry);
+        ReflectionTestUtils.setField(created, "initialLimit", initialLimit);
+        ReflectionTestUtils.setField(created, "minLimit", 1);
+        ReflectionTestUtils.setField(created, "maxLimit", initialLimit);
+        ReflectionTestUtils.setField(created, "latencyTarget", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(created, "backoffRatio", 0.5);
+        created.init();
+        return created;
+    }
+}
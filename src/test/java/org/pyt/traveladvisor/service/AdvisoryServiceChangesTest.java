@@ -0,0 +1,133 @@
+package org.pyt.traveladvisor.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.pyt.traveladvisor.exception.ValidationException;
+import org.pyt.traveladvisor.model.AdvisoryTombstone;
+import org.pyt.traveladvisor.model.TravelAdvisory;
+import org.pyt.traveladvisor.repository.AdvisoryTombstoneRepository;
+import org.pyt.traveladvisor.repository.TravelAdvisoryRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AdvisoryServiceChangesTest {
+
+    private static final Instant T0 = Instant.parse("2024-05-01T10:00:00Z");
+
+    @Mock
+    private TravelAdvisoryRepository repo;
+
+    @Mock
+    private AdvisoryTombstoneRepository tombstones;
+
+    @InjectMocks
+    private AdvisoryService service;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "changesClockSkew", Duration.ofSeconds(5));
+    }
+
+    @Test
+    void pollReadsBackByTheClockSkew() {
+
+        stub(List.of(), List.of());
+
+        AdvisoryService.ChangePage page = service.changes(T0.toString(), null, 10).block();
+
+        verify(repo).findChangedAfter(T0.minusSeconds(5), "", PageRequest.ofSize(11));
+        verify(tombstones).findDeletedAfter(T0.minusSeconds(5), "", PageRequest.ofSize(11));
+
+        // an empty poll does not move the high-water mark back by the skew
+        assertThat(page.highWaterMark()).isEqualTo(T0);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void mergesUpsertsAndDeletesInOrderAndCutsAtTheLimit() {
+
+        stub(List.of(advisory("1", 1), advisory("3", 3), advisory("4", 3)),
+                List.of(tombstone("2", 2), tombstone("9", 5)));
+
+        AdvisoryService.ChangePage page = service.changes(T0.toString(), null, 3).block();
+
+        assertThat(page.upserts()).extracting(TravelAdvisory::getCityKey).containsExactly("1", "3");
+        assertThat(page.deletes()).extracting(AdvisoryTombstone::getCityKey).containsExactly("2");
+        assertThat(page.nextCursor()).isNotNull();
+        assertThat(page.highWaterMark()).isEqualTo(T0.plusSeconds(3));
+    }
+
+    @Test
+    void cursorContinuesExactlyAfterTheLastChange() {
+
+        stub(List.of(advisory("1", 1), advisory("3", 3), advisory("4", 3)), List.of());
+        String cursor = service.changes(T0.toString(), null, 2).block().nextCursor();
+
+        stub(List.of(advisory("4", 3)), List.of());
+        AdvisoryService.ChangePage next = service.changes(null, cursor, 2).block();
+
+        verify(repo).findChangedAfter(T0.plusSeconds(3), "3", PageRequest.ofSize(3));
+        assertThat(next.upserts()).extracting(TravelAdvisory::getCityKey).containsExactly("4");
+        assertThat(next.nextCursor()).isNull();
+        assertThat(next.highWaterMark()).isEqualTo(T0.plusSeconds(3));
+    }
+
+    @Test
+    void deleteFollowedByResyncIsOnlyAnUpsert() {
+
+        stub(List.of(advisory("1", 2)), List.of(tombstone("1", 1)));
+
+        AdvisoryService.ChangePage page = service.changes(T0.toString(), null, 10).block();
+
+        assertThat(page.upserts()).hasSize(1);
+        assertThat(page.deletes()).isEmpty();
+    }
+
+    @Test
+    void requiresExactlyOneOfSinceAndCursor() {
+
+        assertThatThrownBy(() -> service.changes(null, null, 10)).isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> service.changes(T0.toString(), "abc", 10)).isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+
+        assertThatThrownBy(() -> service.changes("yesterday", null, 10)).isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> service.changes(null, "not a cursor", 10)).isInstanceOf(ValidationException.class);
+    }
+
+    private void stub(List<TravelAdvisory> upserts, List<AdvisoryTombstone> deletes) {
+        when(repo.findChangedAfter(any(), anyString(), any())).thenReturn(Flux.fromIterable(upserts));
+        when(tombstones.findDeletedAfter(any(), anyString(), any())).thenReturn(Flux.fromIterable(deletes));
+    }
+
+    private TravelAdvisory advisory(String cityKey, int second) {
+        TravelAdvisory advisory = new TravelAdvisory();
+        advisory.setCityKey(cityKey);
+        advisory.setCity("city-" + cityKey);
+        advisory.setSyncedAt(T0.plusSeconds(second));
+        return advisory;
+    }
+
+    private AdvisoryTombstone tombstone(String cityKey, int second) {
+        return new AdvisoryTombstone(cityKey, "city-" + cityKey, T0.plusSeconds(second));
+    }
+}
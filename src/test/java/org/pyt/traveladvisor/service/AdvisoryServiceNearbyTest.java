@@ -0,0 +1,51 @@
+package org.pyt.traveladvisor.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.pyt.traveladvisor.dto.AdvisoryField;
+import org.pyt.traveladvisor.exception.ValidationException;
+import org.pyt.traveladvisor.repository.TravelAdvisoryRepository;
+import reactor.core.publisher.Flux;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AdvisoryServiceNearbyTest {
+
+    @Mock
+    private TravelAdvisoryRepository repo;
+
+    @InjectMocks
+    private AdvisoryService service;
+
+    @Test
+    void rejectsNonFiniteCoordinates() {
+
+        assertThatThrownBy(() -> service.findNearby(Double.NaN, 0, 10, 10, AdvisoryField.ALL))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> service.findNearby(0, Double.NaN, 10, 10, AdvisoryField.ALL))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> service.findNearby(0, Double.POSITIVE_INFINITY, 10, 10, AdvisoryField.ALL))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> service.findNearby(0, 0, Double.NaN, 10, AdvisoryField.ALL))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void acceptsTheEdgesOfTheRange() {
+
+        when(repo.findNear(anyDouble(), anyDouble(), anyDouble(), anyInt(), any())).thenReturn(Flux.empty());
+
+        service.findNearby(-90, 180, 20_000, 10, AdvisoryField.ALL).blockLast();
+
+        verify(repo).findNear(-90, 180, 20_000_000, 10, AdvisoryField.ALL);
+    }
+}
@@ -0,0 +1,83 @@
+package org.pyt.traveladvisor.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.pyt.traveladvisor.cache.InvalidationBus;
+import org.pyt.traveladvisor.exception.ValidationException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class AdvisoryTransferServiceTest {
+
+    private static final String VALID = """
+            {"_id": "london", "city": "London", "country": {"name": "United Kingdom"}, \
+            "weather": {"temperature": 12.5, "feelsLike": 11.0, "humidity": 81, "windSpeed": 4.2}}""";
+
+    @Mock
+    private ReactiveMongoTemplate template;
+
+    @Mock
+    private InvalidationBus invalidations;
+
+    @InjectMocks
+    private AdvisoryTransferService service;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "batchSize", 1000);
+    }
+
+    @Test
+    void rejectsMissingRequiredField() {
+
+        assertRejected(VALID + "\n" + VALID.replace("\"city\": \"London\", ", ""), "line 2 has no city");
+    }
+
+    @Test
+    void rejectsWrongType() {
+
+        assertRejected(VALID.replace("{\"name\": \"United Kingdom\"}", "\"United Kingdom\""),
+                "line 1 has an invalid country");
+        assertRejected(VALID.replace("\"temperature\": 12.5", "\"temperature\": \"warm\""),
+                "line 1 has an invalid weather.temperature");
+        assertRejected(VALID.replace("{\"name\": \"United Kingdom\"}", "{}"), "line 1 has no country.name");
+    }
+
+    @Test
+    void rejectsBlankCity() {
+
+        assertRejected(VALID.replace("\"London\"", "\" \""), "line 1 has a blank city");
+    }
+
+    @Test
+    void countsBlankLinesInTheLineNumber() {
+
+        assertRejected(VALID + "\n\n" + VALID.replace("\"london\"", "42"), "line 3 has an invalid _id");
+    }
+
+    private void assertRejected(String ndjson, String message) {
+
+        assertThatThrownBy(() -> service.importNdjson(body(ndjson)).block())
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining(message);
+
+        verifyNoInteractions(template, invalidations);
+    }
+
+    private Flux<DataBuffer> body(String ndjson) {
+        return Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(ndjson.getBytes(StandardCharsets.UTF_8)));
+    }
+}
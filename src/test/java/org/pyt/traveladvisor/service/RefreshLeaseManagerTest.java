@@ -0,0 +1,273 @@
+package org.pyt.traveladvisor.service;
+
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pyt.traveladvisor.config.ClusterProperties;
+import org.pyt.traveladvisor.model.RefreshLease;
+import org.pyt.traveladvisor.model.RefreshNode;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// two managers against one in-memory stand-in for the lease collections
+class RefreshLeaseManagerTest {
+
+    private static final int PARTITIONS = 8;
+    private static final Duration TTL = Duration.ofMillis(300);
+
+    private final Map<Object, Map<String, Object>> nodes = new HashMap<>();
+    private final Map<Object, Map<String, Object>> leases = new HashMap<>();
+
+    private ReactiveMongoTemplate template;
+
+    @BeforeEach
+    void setUp() {
+        template = fakeTemplate();
+    }
+
+    @Test
+    void ownsEverythingWhenLeasesAreDisabled() {
+
+        ClusterProperties props = new ClusterProperties();
+        RefreshLeaseManager manager = new RefreshLeaseManager(template, props);
+
+        assertThat(manager.owns("2643743")).isTrue();
+    }
+
+    @Test
+    void singleNodeOwnsAllPartitions() {
+
+        RefreshLeaseManager a = manager("node-a");
+
+        a.heartbeat().block();
+
+        assertThat(cityKeys()).allMatch(a::owns);
+    }
+
+    @Test
+    void secondNodeTakesOverAFairShare() {
+
+        RefreshLeaseManager a = manager("node-a");
+        RefreshLeaseManager b = manager("node-b");
+
+        a.heartbeat().block();
+        b.heartbeat().block(); // everything is leased to a: nothing to claim yet
+        a.heartbeat().block(); // a sees two live nodes and releases its surplus
+        b.heartbeat().block(); // b claims the released partitions
+
+        assertExactlyOneOwner(a, b);
+        assertThat(ownerCount("node-a")).isEqualTo(PARTITIONS / 2);
+        assertThat(ownerCount("node-b")).isEqualTo(PARTITIONS / 2);
+    }
+
+    @Test
+    void leasesOfADeadNodeMoveOnceTheyExpire() throws InterruptedException {
+
+        RefreshLeaseManager a = manager("node-a");
+        RefreshLeaseManager b = manager("node-b");
+
+        a.heartbeat().block();
+        b.heartbeat().block();
+        a.heartbeat().block();
+        b.heartbeat().block();
+
+        // a stops heartbeating
+        Thread.sleep(TTL.toMillis() + 100);
+
+        assertThat(cityKeys()).noneMatch(a::owns);
+
+        b.heartbeat().block();
+
+        assertThat(cityKeys()).allMatch(b::owns);
+    }
+
+    @Test
+    void shutdownHandsOverWithoutWaitingForTheTtl() {
+
+        RefreshLeaseManager a = manager("node-a");
+        RefreshLeaseManager b = manager("node-b");
+
+        a.heartbeat().block();
+        b.heartbeat().block();
+        a.heartbeat().block();
+        b.heartbeat().block();
+
+        a.shutdown();
+        b.heartbeat().block();
+
+        assertThat(cityKeys()).allMatch(b::owns);
+        assertThat(ownerCount("node-a")).isZero();
+    }
+
+    @Test
+    void partitionDependsOnlyOnTheCityKey() {
+
+        assertThat(RefreshLeaseManager.partitionOf("2643743", PARTITIONS))
+                .isEqualTo(RefreshLeaseManager.partitionOf("2643743", PARTITIONS))
+                .isBetween(0, PARTITIONS - 1);
+        assertThat(RefreshLeaseManager.partitionOf("-1", PARTITIONS)).isBetween(0, PARTITIONS - 1);
+    }
+
+    private void assertExactlyOneOwner(RefreshLeaseManager a, RefreshLeaseManager b) {
+        for (String cityKey : cityKeys()) {
+            assertThat(a.owns(cityKey) ^ b.owns(cityKey)).as("single owner of %s", cityKey).isTrue();
+        }
+    }
+
+    private List<String> cityKeys() {
+        return IntStream.range(0, 200).mapToObj(i -> String.valueOf(2_600_000 + i * 7919)).toList();
+    }
+
+    private long ownerCount(String owner) {
+        Instant now = Instant.now();
+        return leases.values().stream()
+                .filter(lease -> owner.equals(lease.get("owner")) && ((Instant) lease.get("expiresAt")).isAfter(now))
+                .count();
+    }
+
+    private RefreshLeaseManager manager(String instanceId) {
+        ClusterProperties props = new ClusterProperties();
+        props.setInstanceId(instanceId);
+        props.getLease().setEnabled(true);
+        props.getLease().setPartitions(PARTITIONS);
+        props.getLease().setTtl(TTL);
+        return new RefreshLeaseManager(template, props);
+    }
+
+    // ---------------- IN-MEMORY TEMPLATE ----------------
+
+    private ReactiveMongoTemplate fakeTemplate() {
+
+        ReactiveMongoTemplate fake = mock(ReactiveMongoTemplate.class);
+
+        when(fake.upsert(any(Query.class), any(UpdateDefinition.class), eq(RefreshNode.class)))
+                .thenAnswer(inv -> Mono.fromSupplier(() -> upsert(nodes, inv.getArgument(0), inv.getArgument(1))));
+
+        when(fake.count(any(Query.class), eq(RefreshNode.class)))
+                .thenAnswer(inv -> Mono.fromSupplier(() -> (long) select(nodes, inv.getArgument(0)).size()));
+
+        when(fake.remove(any(Query.class), eq(RefreshNode.class)))
+                .thenAnswer(inv -> Mono.fromSupplier(() -> {
+                    select(nodes, inv.getArgument(0)).forEach(node -> nodes.remove(node.get("_id")));
+                    return DeleteResult.acknowledged(1);
+                }));
+
+        when(fake.updateMulti(any(Query.class), any(UpdateDefinition.class), eq(RefreshLease.class)))
+                .thenAnswer(inv -> Mono.fromSupplier(() -> {
+                    List<Map<String, Object>> matched = select(leases, inv.getArgument(0));
+                    matched.forEach(lease -> lease.putAll(set(inv.getArgument(1))));
+                    return UpdateResult.acknowledged(matched.size(), (long) matched.size(), null);
+                }));
+
+        when(fake.find(any(Query.class), eq(RefreshLease.class)))
+                .thenAnswer(inv -> Flux.defer(() -> Flux.fromIterable(select(leases, inv.getArgument(0)))
+                        .map(this::toLease)));
+
+        when(fake.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class), eq(RefreshLease.class)))
+                .thenAnswer(inv -> Mono.fromSupplier(() -> {
+                    Query query = inv.getArgument(0);
+                    Object id = query.getQueryObject().get("_id");
+                    List<Map<String, Object>> matched = select(leases, query);
+                    if (matched.isEmpty() && leases.containsKey(id)) {
+                        throw new DuplicateKeyException("lease " + id + " is held");
+                    }
+                    Map<String, Object> lease = matched.isEmpty() ? new HashMap<>(Map.of("_id", id)) : matched.get(0);
+                    lease.putAll(set(inv.getArgument(1)));
+                    leases.put(id, lease);
+                    return toLease(lease);
+                }));
+
+        return fake;
+    }
+
+    private synchronized UpdateResult upsert(Map<Object, Map<String, Object>> collection, Query query, UpdateDefinition update) {
+        Object id = query.getQueryObject().get("_id");
+        collection.computeIfAbsent(id, k -> new HashMap<>(Map.of("_id", k))).putAll(set(update));
+        return UpdateResult.acknowledged(1, 1L, null);
+    }
+
+    private Map<String, Object> set(UpdateDefinition update) {
+        Map<String, Object> values = new HashMap<>();
+        ((Document) update.getUpdateObject().get("$set")).forEach(values::put);
+        return values;
+    }
+
+    private synchronized List<Map<String, Object>> select(Map<Object, Map<String, Object>> collection, Query query) {
+        List<Map<String, Object>> matched = new ArrayList<>();
+        for (Map<String, Object> doc : collection.values()) {
+            if (matches(query.getQueryObject(), doc)) {
+                matched.add(doc);
+            }
+        }
+        return matched;
+    }
+
+    // just the operators the lease manager uses
+    @SuppressWarnings("unchecked")
+    private boolean matches(Document query, Map<String, Object> doc) {
+
+        for (Map.Entry<String, Object> condition : query.entrySet()) {
+
+            if (condition.getKey().equals("$or")) {
+                if (((List<Document>) condition.getValue()).stream().noneMatch(sub -> matches(sub, doc))) {
+                    return false;
+                }
+                continue;
+            }
+
+            Object actual = doc.get(condition.getKey());
+
+            if (!(condition.getValue() instanceof Document operators)) {
+                if (!Objects.equals(condition.getValue(), actual)) {
+                    return false;
+                }
+                continue;
+            }
+
+            for (Map.Entry<String, Object> operator : operators.entrySet()) {
+                boolean ok = switch (operator.getKey()) {
+                    case "$gt" -> actual != null && ((Comparable<Object>) actual).compareTo(operator.getValue()) > 0;
+                    case "$lt" -> actual != null && ((Comparable<Object>) actual).compareTo(operator.getValue()) < 0;
+                    case "$in" -> ((Collection<Object>) operator.getValue()).contains(actual);
+                    default -> throw new IllegalArgumentException("Unsupported operator " + operator.getKey());
+                };
+                if (!ok) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private RefreshLease toLease(Map<String, Object> doc) {
+        RefreshLease lease = new RefreshLease();
+        lease.setPartition((Integer) doc.get("_id"));
+        lease.setOwner((String) doc.get("owner"));
+        lease.setExpiresAt((Instant) doc.get("expiresAt"));
+        return lease;
+    }
+}